@@ -0,0 +1,156 @@
+package ludo;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+import javax.imageio.ImageIO;
+import static javax.swing.JOptionPane.showInputDialog;
+import static ludo.ImgPath.DICE_PATH;
+import static ludo.ImgPath.FILE_EXTENSION;
+import static ludo.LudoGUI.TILE_SIZE;
+import ludo.engine.Dice;
+
+
+ // The dice as shown in the GUI.
+ // Extends the engine Dice with the following information:
+
+ // Whether the dice results are being generated randomly or by user input
+ // The coordinates of the dice in the graphic frame while it is being animated
+ // The images to represent this object in the GUI
+
+public class AnimatedDice extends Dice {
+
+    public static final int DICE_SIZE=(int)(1.5*TILE_SIZE);
+    private Scanner scanner;
+    private final int ACC=0;
+    private boolean debug = false;
+    private int[] coordinates = new int[2];
+    private int tickCounter;
+    private int pos, vel;
+
+    private BufferedImage dice[] = new BufferedImage[6];
+    private BufferedImage diceAnimation[] = new BufferedImage[25];
+    private BufferedImage diceImg;
+
+
+     // Initializes an instance of AnimatedDice and loads its images.
+
+    public AnimatedDice(){
+        try {
+            for (int i=0; i<dice.length; i++)
+                    dice[i]=ImageIO.read(new File(DICE_PATH+"result"+(i+1)+FILE_EXTENSION));
+            for (int i=0; i<diceAnimation.length; i++)
+                    diceAnimation[i]=ImageIO.read(new File(DICE_PATH+"animateddice"+(i+1)+FILE_EXTENSION));}
+        catch (IOException ex) {
+                System.out.println("Image not found.");}
+        diceImg = dice[getResult()-1];
+        this.coordinates[0]=(TILE_SIZE*15-DICE_SIZE)/2;
+        this.coordinates[1]=(TILE_SIZE*15-DICE_SIZE)/2;
+    }
+
+
+     // Indicates whether the dice results are being generated randomly or by user input.
+
+    public boolean getDebug() {
+        return this.debug;
+    }
+
+
+     // Switches debug mode on/off.
+
+    public void setDebug(boolean debug) {
+        this.debug = debug;
+    }
+
+
+     // Gets the coordinates of the dice in the GUI frame.
+
+    public int getCoordinates(int i) {
+        return this.coordinates[i];
+    }
+
+
+     // Gets the graphic representation of the dice at any given moment.
+
+    public BufferedImage getDiceImg() {
+        return this.diceImg;
+    }
+
+
+     // The player with index pIndex rolls the dice and the animation starts from the player's corner.
+
+    @Override
+    public void rollDice(int pIndex) {
+        super.rollDice(pIndex);
+        resetCoordinates();
+        this.tickCounter=0;
+        this.vel=1;
+    }
+
+
+     //Generates a dice result.
+     // In debug mode the result is generated by user input, else it is randomly generated.
+     // @return the outcome or a dice roll in the range [1-6].
+
+    @Override
+    public int roll() {
+        if(!debug)
+            return super.roll();
+        int result;
+        scanner = new Scanner(showInputDialog("Enter dice value (1-6):"));
+        try{int res = scanner.nextInt()%7;
+            result = res!=0? res:6;
+        }
+        catch(NoSuchElementException ne){result=6;}
+        return result;
+    }
+
+
+     // Sets the dice coordinates to the corner of the player holding the dice.
+
+    public void resetCoordinates(){
+        pos=0;
+        if(getHolder()<2){
+            this.coordinates[0]=TILE_SIZE*15-DICE_SIZE;}
+        else{
+            this.coordinates[0]=0;}
+        if(getHolder()%3==0){
+            this.coordinates[1]=0;}
+        else{
+            this.coordinates[1]=TILE_SIZE*15-DICE_SIZE;}
+    }
+
+
+     // Set coordinates x and y to a given position.
+
+    public void setCoordinates(int pos){
+        if(getHolder()<2){
+            this.coordinates[0]=TILE_SIZE*15-DICE_SIZE-pos;}
+        else{
+            this.coordinates[0]=pos;}
+        if(getHolder()%3==0){
+            this.coordinates[1]=pos;}
+        else{
+            this.coordinates[1]=TILE_SIZE*15-DICE_SIZE-pos;}
+    }
+
+
+     // Select a new image to represent the dice with every tick of the timer that controls the dice animation from the GUI.
+
+    public void animateDice() {
+        pos += vel*tickCounter + ACC*tickCounter*tickCounter/2;
+        if(pos<(TILE_SIZE*15-DICE_SIZE)/2){
+            if(getHolder()%3==0)
+                diceImg = diceAnimation[tickCounter%diceAnimation.length];
+            else
+                diceImg = diceAnimation[diceAnimation.length-1-(tickCounter%diceAnimation.length)];
+            tickCounter++;
+            vel += ACC;}
+        else{
+            diceImg = dice[getResult()-1];
+            pos=(TILE_SIZE*15-DICE_SIZE)/2;}
+        setCoordinates(pos);
+    }
+}
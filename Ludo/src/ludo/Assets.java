@@ -0,0 +1,81 @@
+package ludo;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import javax.imageio.ImageIO;
+import ludo.ImgPath.Theme;
+import ludo.engine.Player.Color;
+
+
+ // Holds the images used by the GUI to render a round of ludo.
+ // The engine objects (Board, Player, Dice) carry no graphics, so the GUI attaches them through this object:
+
+ // The image of the regular and special board for each theme
+ // The image of each player's tokens for each theme
+ // The image used to highlight the tokens that can be moved
+
+
+public class Assets {
+
+    private final Map<Theme, BufferedImage> board = new EnumMap<>(Theme.class);
+    private final Map<Theme, BufferedImage> boardSp = new EnumMap<>(Theme.class);
+    private final Map<Theme, Map<Color, BufferedImage>> tokens = new EnumMap<>(Theme.class);
+    private BufferedImage highlighter;
+
+
+     // Loads the images of the boards, tokens and highlighter for every theme.
+
+    public Assets() {
+        for (Theme t : Theme.values()) {
+            ImgPath.setBoardPath(t);
+            ImgPath.setTokenPath(t);
+            board.put(t, read(ImgPath.getBoardPath(ImgPath.Board.board)));
+            boardSp.put(t, read(ImgPath.getBoardPath(ImgPath.Board.specialboard)));
+            Map<Color, BufferedImage> img = new EnumMap<>(Color.class);
+            for (Color c : Color.values())
+                img.put(c, read(ImgPath.getTokenPath(c)));
+            tokens.put(t, img);
+        }
+        highlighter = read(ImgPath.GEN_PATH + ImgPath.DIR + "highlight.png");
+    }
+
+    private static BufferedImage read(String path) {
+        try {
+            return ImageIO.read(new File(path));
+        } catch (IOException ex) {
+            System.out.println("Image not found.");
+            return null;
+        }
+    }
+
+
+     // Gets the graphic representation of the board
+
+    public BufferedImage getBoardImg(Theme theme) {
+        return board.get(theme);
+    }
+
+
+     // Gets a mask for the board containing the graphics for the special tiles
+
+    public BufferedImage getBoardImgSp(Theme theme) {
+        return boardSp.get(theme);
+    }
+
+
+     // Gets the graphic representation of each of the tokens of a player given its color.
+
+    public BufferedImage getTokenImg(Theme theme, Color color) {
+        return tokens.get(theme).get(color);
+    }
+
+
+     // Gets the image used to highlight the tokens that can be moved.
+
+    public BufferedImage getHighlighter() {
+        return highlighter;
+    }
+}
@@ -0,0 +1,106 @@
+package ludo;
+
+import static ludo.LudoGUI.IGNORE;
+import static ludo.LudoGUI.TILE_SIZE;
+import ludo.engine.Player;
+import ludo.engine.Token;
+import static ludo.engine.Player.GOAL;
+import static ludo.engine.Player.OUT_OF_BOARD;
+
+
+ // Maps the position of the tokens in the board to coordinates in the graphic frame, and back.
+ // The engine only keeps track of board positions, the GUI computes where to draw each token when rendering.
+
+
+public class BoardLayout {
+
+     // Gets the coordinates x and y of a given token of a player according to its position in the board.
+
+    public static int[] getXY(Player player, Token token) {
+        int[] coordinates = new int[2];
+        switch (token.getPosition()) {
+            case OUT_OF_BOARD: {
+                coordinates = outOfBoardCoordinates(player.getPIndex(), token.getIndex());
+                break;
+            }
+            default: {
+                if (!token.getFinalTrack()) {
+                    coordinates[0] = boardCoordinates(token.getPosition());
+                    coordinates[1] = boardCoordinates((token.getPosition() + 39) % 52);
+                } else {
+                    coordinates = finalTrackCoordinates(token.getPosition(), player.getPIndex(), token.getIndex());
+                }
+                break;
+            }
+        }
+        return coordinates;
+    }
+
+     // Gets the coordinates x and y for a token in its home area.
+
+    private static int[] outOfBoardCoordinates(int pIndex, int tIndex) {
+        int coordinates[] = new int[2];
+        coordinates[0] = TILE_SIZE/2*(21 + 4 * (tIndex / 2) - 18 * (pIndex / 2));
+        coordinates[1] = TILE_SIZE/2*(3 + 4 * (tIndex % 2) + 18 * ((pIndex % 3) > 0 ? 1 : 0));
+        return coordinates;
+    }
+
+     // Gets the coordinate x for a token standing in any of the board tiles.
+
+    private static int boardCoordinates(int pos) {
+        int coordinate;
+        int a = pos % 26;
+        int b = 7 - Math.abs(a - 11);
+        int c = pos > 24 & pos != 51 ? 2 : 0;
+        coordinate = (pos != 24 & pos != 50) ? c + (((a > 4) & (a < 18)) ? (b - (b / 7)) : 0) : 1;
+        coordinate = pos > 23 ? TILE_SIZE*(8 - coordinate) : TILE_SIZE*(8 + coordinate);
+        return coordinate;
+    }
+
+    // Gets the coordinates x and y for a token in its final track.
+
+    private static int[] finalTrackCoordinates(int pos, int pIndex, int tIndex) {
+        int coordinates[] = new int[2];
+        if (pos != GOAL) {
+            coordinates[pIndex % 2] = TILE_SIZE*7;
+            if (pIndex % 3 == 0) {
+                coordinates[(pIndex + 1) % 2] = TILE_SIZE * (pos + 1);
+            } else {
+                coordinates[(pIndex + 1) % 2] = TILE_SIZE * (13 - pos);
+            }
+        } else {
+            if (pIndex % 2 == 0) {
+                coordinates[0] = TILE_SIZE*6 + TILE_SIZE/2*(1 + tIndex);
+                coordinates[1] = TILE_SIZE*6 + TILE_SIZE*2 * (pIndex / 2);
+            } else {
+                coordinates[0] = TILE_SIZE*6 + TILE_SIZE*2*(1 - (pIndex / 2));
+                coordinates[1] = TILE_SIZE*6 + TILE_SIZE/2*(1 + tIndex);
+            }
+        }
+        return coordinates;
+    }
+
+     // Gets the index of a token of a player given the coordinates x and y from the graphic frame
+
+    public static int getTokenbyCoord(Player player, int[] clickXY) {
+        int index = IGNORE;
+        int coordinateX, coordinateY;
+        for (Token token : player.getTokens()) {
+            System.out.println("token index: "+token.getIndex());
+            System.out.println("token position: "+token.getPosition());
+
+            int[] xy = getXY(player, token);
+            coordinateX = xy[0];
+            coordinateY = xy[1];
+            if (clickXY[0] - coordinateX >= 0 && clickXY[0] - coordinateX <= TILE_SIZE) {
+                if (clickXY[1] - coordinateY >= 0 && clickXY[1] - coordinateY <= TILE_SIZE) {
+                    System.out.println("coordX: "+coordinateX);
+                    System.out.println("coordY: "+coordinateY);
+                    index = token.getIndex();
+                    return index;
+                }
+            }
+        }
+        return index;
+    }
+}
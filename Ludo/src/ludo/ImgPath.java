@@ -2,15 +2,11 @@ package ludo;
 
 import java.util.HashMap;
 import java.util.Map;
+import ludo.engine.Player.Color;
 
 public class ImgPath {
     
     
-     // The four possible player colors
-     
-    public enum Color {yellow, red, green, blue};
-
-    
      // The three available player themes
      
     public enum Theme {plain, solid, fruits};
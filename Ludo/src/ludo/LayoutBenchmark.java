@@ -0,0 +1,65 @@
+package ludo;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import ludo.engine.Benchmark;
+import ludo.engine.Benchmark.Position;
+import ludo.engine.GameState;
+import ludo.engine.Player;
+import ludo.engine.Token;
+
+
+ // Micro-benchmarks of the mapping between board positions and frame coordinates (see BoardLayout),
+ // measured on the representative positions of ludo.engine.Benchmark. Loads no images and opens no window.
+ //
+ // Usage: java ludo.LayoutBenchmark [filter] [iterations] [seconds]
+
+
+public class LayoutBenchmark {
+
+    private static final int TILE_CENTER = LudoGUI.TILE_SIZE / 2;
+
+    public static void main(String[] args) {
+        String filter = args.length > 0 ? args[0] : "";
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : Benchmark.DEFAULT_ITERATIONS;
+        double seconds = args.length > 2 ? Double.parseDouble(args[2]) : Benchmark.DEFAULT_SECONDS;
+        Benchmark benchmark = new Benchmark(filter, iterations, seconds);
+        PrintStream console = System.out;
+
+        for (Position p : Position.values()) {
+            GameState game = Benchmark.newGame(GameState.DEFAULT_AUTOMODE, GameState.DEFAULT_BOARD);
+            Benchmark.position(p, GameState.DEFAULT_BOARD).applyTo(game);
+            Player[] players = game.getPlayers();
+            int[][] clicks = new int[16][];
+            for (int i = 0; i < 16; i++) {
+                int[] xy = BoardLayout.getXY(players[i / 4], players[i / 4].getToken(i % 4));
+                clicks[i] = new int[] {xy[0] + TILE_CENTER, xy[1] + TILE_CENTER};
+            }
+
+            benchmark.run("getXY/" + p, () -> {
+                int acc = 0;
+                for (Player player : players)
+                    for (Token token : player.getTokens())
+                        acc += BoardLayout.getXY(player, token)[0];
+                return acc;
+            });
+
+            // getTokenbyCoord prints debugging information for every token, which is discarded while it is measured
+            PrintStream discard = new PrintStream(new OutputStream() {
+                @Override
+                public void write(int b) {
+                }
+            });
+            int[] k = {0};
+            System.setOut(discard);
+            try {
+                benchmark.run("getTokenbyCoord/" + p, () -> {
+                    int i = k[0]++ & 15;
+                    return BoardLayout.getTokenbyCoord(players[i / 4], clicks[i]);
+                });
+            } finally {
+                System.setOut(console);
+            }
+        }
+    }
+}
@@ -9,13 +9,9 @@ import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
-import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.List;
-import javax.imageio.ImageIO;
 import javax.swing.JButton;
 import javax.swing.JDialog;
 import javax.swing.JMenu;
@@ -25,9 +21,12 @@ import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.Timer;
 import static javax.swing.JOptionPane.showMessageDialog;
-import static ludo.Dice.DICE_SIZE;
-import static ludo.ImgPath.*;
-import ludo.ImgPath.Color;
+import static ludo.AnimatedDice.DICE_SIZE;
+import ludo.ImgPath.Theme;
+import ludo.engine.GameState;
+import ludo.engine.Player;
+import ludo.engine.Player.Color;
+import ludo.engine.Token;
 
  // A user interface for the ludo game.
  // This object allows the user to modify game settings through a menu bar, through select windows and through key combinations.
@@ -39,6 +38,7 @@ import ludo.ImgPath.Color;
  // A container(canvas) to render the graphics of all the elements of the ludo game.
  // A timer to trigger the computer player response.
  // A timer to trigger dice animation events.
+ // The theme, images and animated dice attached to the (headless) GameState for rendering.
  // Mouse, event and key listeners.
  // The GUI accepts the following key combinations:
  
@@ -53,6 +53,7 @@ public class LudoGUI extends JPanel implements ActionListener, MouseListener, Ke
     public static final int TILE_SIZE = 40;
     public static final int DICE_DELAY = 40;
     public static final int AUTOPLAYER_DELAY = 1000;
+    public static final Theme DEFAULT_THEME = Theme.plain;
     
     
     private static final List<String> mGame = Arrays.asList("Restart", "Pause", "Exit");
@@ -62,9 +63,9 @@ public class LudoGUI extends JPanel implements ActionListener, MouseListener, Ke
     private static final List<String> mBoard = Arrays.asList("Regular", "Special");
     private static final List<String> mPSettings = Arrays.asList("Auto", "Manual", "Off");
     
-    BufferedImage highlighter;
-//    BufferedImage dice[] = new BufferedImage[6];
-//    BufferedImage diceAnimation[] = new BufferedImage[25];
+    Assets assets;
+    AnimatedDice dice;
+    Theme theme;
 
     Timer animation = new Timer(DICE_DELAY, this);
     Timer autoplayer = new Timer(AUTOPLAYER_DELAY, this);
@@ -79,19 +80,21 @@ public class LudoGUI extends JPanel implements ActionListener, MouseListener, Ke
 
     
      // Initializes the event listeners and starts the timer for the computer-operated players.
+     // Attaches the images and the animated dice to the given game.
      
-    public LudoGUI(GameState game) {
+    public LudoGUI(GameState game, Theme theme) {
         thisGame = game;
+        this.theme = theme;
+        assets = new Assets();
+        dice = new AnimatedDice();
+        thisGame.setDice(dice);
         autoplayer.start();
         addMenu();
         addMouseListener(this);
         addKeyListener(this);
         setFocusable(true);
         setPreferredSize(new Dimension(frameSize, frameSize));
-        //System.out.println(thisGame.getTheme());
-        try {
-            highlighter = ImageIO.read(new File(GEN_PATH+DIR+"highlight.png"));} 
-        catch (IOException e) {}
+        //System.out.println(theme);
     }
     
     
@@ -102,15 +105,16 @@ public class LudoGUI extends JPanel implements ActionListener, MouseListener, Ke
     }
 
     private void render(Graphics2D g2) {
-        g2.drawImage(thisGame.getBoard().getImg(thisGame.getTheme()), 0, 0, frameSize, frameSize, null);
+        g2.drawImage(assets.getBoardImg(theme), 0, 0, frameSize, frameSize, null);
         if (thisGame.getBoard().getSpecial()) {
-            g2.drawImage(thisGame.getBoard().getImgSp(thisGame.getTheme()), 0, 0, frameSize, frameSize, null);
+            g2.drawImage(assets.getBoardImgSp(theme), 0, 0, frameSize, frameSize, null);
         }
         Player[] players = thisGame.getPlayers();
         for (Player player : players) {
             if (player.getActive()) {
                 for (Token token : player.getTokens()) {
-                    g2.drawImage(player.getImage(thisGame.getTheme()), token.getCoordinateX(), token.getCoordinateY(), tileSize, tileSize, null);
+                    int[] xy = BoardLayout.getXY(player, token);
+                    g2.drawImage(assets.getTokenImg(theme, Color.valueOf(player.getColor())), xy[0], xy[1], tileSize, tileSize, null);
                     if (!thisGame.getDiceRoller()) {
                         if (!animation.isRunning()) {
                             
@@ -118,10 +122,10 @@ public class LudoGUI extends JPanel implements ActionListener, MouseListener, Ke
                             
                         	if (thisGame.getCurrentPlayer() == player.getPIndex()) {    
                                 if (thisGame.getDice().getIsSix() & !token.getFinalTrack()) {
-                                    g2.drawImage(highlighter, token.getCoordinateX(), token.getCoordinateY(), tileSize, tileSize, null);
+                                    g2.drawImage(assets.getHighlighter(), xy[0], xy[1], tileSize, tileSize, null);
                                 } else {
-                                    if (player.getTokensOut().contains(token.getIndex())) {
-                                        g2.drawImage(highlighter, token.getCoordinateX(), token.getCoordinateY(), tileSize, tileSize, null);
+                                    if (player.isOut(token.getIndex())) {
+                                        g2.drawImage(assets.getHighlighter(), xy[0], xy[1], tileSize, tileSize, null);
                                     }
                                 }
                             }
@@ -130,7 +134,7 @@ public class LudoGUI extends JPanel implements ActionListener, MouseListener, Ke
                 }
             }
         }
-            g2.drawImage(thisGame.getDice().getDiceImg(), thisGame.getDice().getCoordinates(0), thisGame.getDice().getCoordinates(1), DICE_SIZE, DICE_SIZE, null);
+            g2.drawImage(dice.getDiceImg(), dice.getCoordinates(0), dice.getCoordinates(1), DICE_SIZE, DICE_SIZE, null);
     }
 
     
@@ -198,12 +202,12 @@ public class LudoGUI extends JPanel implements ActionListener, MouseListener, Ke
                 int[] clickXY = new int[2];
                 clickXY[0] = e.getX();
                 clickXY[1] = e.getY();
-                int selectedToken = thisGame.getPlayer(thisGame.getCurrentPlayer()).getTokenbyCoord(clickXY);
+                int selectedToken = BoardLayout.getTokenbyCoord(thisGame.getPlayer(thisGame.getCurrentPlayer()), clickXY);
                 System.out.println("SelectedToken: "+selectedToken);
                 if (thisGame.getDice().getIsSix() && selectedToken != IGNORE) {
                     thisGame.selectAndMove(selectedToken);} 
                 else {
-                    if (thisGame.getPlayer(thisGame.getCurrentPlayer()).getTokensOut().contains(selectedToken)) {
+                    if (selectedToken != IGNORE && thisGame.getPlayer(thisGame.getCurrentPlayer()).isOut(selectedToken)) {
                         thisGame.selectAndMove(selectedToken);}}
                 autoplayer.start();
             }
@@ -225,9 +229,9 @@ public class LudoGUI extends JPanel implements ActionListener, MouseListener, Ke
         if(ke.isControlDown()){
             switch(ke.getKeyCode()){
                 case KeyEvent.VK_D:{
-                    boolean debugMode=thisGame.getDice().getDebug();
+                    boolean debugMode=dice.getDebug();
                     System.out.printf("Debug switched %s\n",debugMode? "off":"on");
-                    thisGame.getDice().setDebug(!debugMode);
+                    dice.setDebug(!debugMode);
                     break;}
                 case KeyEvent.VK_A:{
                     for(Player player: thisGame.getPlayers())
@@ -240,10 +244,10 @@ public class LudoGUI extends JPanel implements ActionListener, MouseListener, Ke
                     break;}
                 case KeyEvent.VK_T:{
                     Selector s = new Selector("theme");
-                    thisGame.setTheme(s.selectedTheme());
+                    theme = s.selectedTheme();
                     break;}
                 case KeyEvent.VK_P:{
-                    Selector s = new Selector("player", thisGame.getTheme().name(),thisGame.getPlayer(thisGame.getCurrentPlayer()).getColor());
+                    Selector s = new Selector("player", theme.name(),thisGame.getPlayer(thisGame.getCurrentPlayer()).getColor());
                         for(Color color: Color.values())
                             if(s.selectedPlayers().contains(color))
                                 thisGame.addPlayer(color.name());
@@ -252,7 +256,7 @@ public class LudoGUI extends JPanel implements ActionListener, MouseListener, Ke
                                     thisGame.removePlayer(color.name());
                     break;}
                 case KeyEvent.VK_B:{
-                    Selector s = new Selector("board", thisGame.getTheme().name());
+                    Selector s = new Selector("board", theme.name());
                     thisGame.getBoard().setSpecial(s.selectedBoard());
                     break;}                
             }
@@ -309,8 +313,8 @@ public class LudoGUI extends JPanel implements ActionListener, MouseListener, Ke
      // Updates the dice image with every tick of the timer and moves the dice position from the player's corner to the center of the board.
      
     public void playAnimation(){
-       thisGame.getDice().animateDice();
-       if (thisGame.getDice().getCoordinates(0) == (TILE_SIZE * 15 - DICE_SIZE) / 2) {
+       dice.animateDice();
+       if (dice.getCoordinates(0) == (TILE_SIZE * 15 - DICE_SIZE) / 2) {
            animation.stop();
            thisGame.checkMoveOrPass();
            autoplayer.start();} 
@@ -376,7 +380,7 @@ public class LudoGUI extends JPanel implements ActionListener, MouseListener, Ke
                             break;}}
                 else{
                     if(mTheme.contains(item.getText())){
-                        thisGame.setTheme(item.getText());}
+                        setTheme(item.getText());}
                     else{
                         if(mBoard.contains(item.getText())){
                             thisGame.getBoard().setSpecial(item.getText());
@@ -398,6 +402,15 @@ public class LudoGUI extends JPanel implements ActionListener, MouseListener, Ke
     }
     
     
+     // Sets the game graphics style to the given theme name
+     
+    public void setTheme(String theme) {
+        for(Theme t: Theme.values())
+            if(theme.equalsIgnoreCase(t.name()))
+                this.theme = t;
+    }
+    
+    
      // Sends all the tokens of the active players to their home area.
      
     public void restartGUI(){
@@ -434,13 +447,13 @@ public class LudoGUI extends JPanel implements ActionListener, MouseListener, Ke
     
      // Creates and initializes the container of the ludoGUI and shows it on screen.
      
-    public static void drawGUI(GameState game) {
+    public static void drawGUI(GameState game, Theme theme) {
         frame = new JDialog();
         frame.setTitle("LUDO");
         frame.setModal(true);
         frame.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
         game.setPlaying(true);
-        LudoGUI ludoPanel=new LudoGUI(game);  
+        LudoGUI ludoPanel=new LudoGUI(game, theme);  
         frame.setJMenuBar(ludoPanel.getMenu());
         frame.add(ludoPanel);
         frame.setResizable(false);
@@ -6,8 +6,9 @@ import java.util.List;
 import javax.swing.JOptionPane;
 import javax.swing.UIManager;
 
-import ludo.ImgPath.Color;
 import ludo.ImgPath.Theme;
+import ludo.engine.GameState;
+import ludo.engine.Player.Color;
 
 public class Main {
 
@@ -60,9 +61,9 @@ public class Main {
         selectWindow = new Selector("board", theme.name());
         boolean special = selectWindow.selectedBoard();
 
-        game = new GameState(theme, plColors, special);
+        game = new GameState(plColors, special);
 
-        LudoGUI.drawGUI(game);
+        LudoGUI.drawGUI(game, theme);
         System.exit(0);
     }
 }
@@ -10,9 +10,9 @@ import java.io.IOException;
 import java.util.*;
 import javax.imageio.ImageIO;
 import javax.swing.*;
-import static ludo.GameState.DEFAULT_THEME;
-import ludo.ImgPath.Color;
+import static ludo.LudoGUI.DEFAULT_THEME;
 import ludo.ImgPath.Theme;
+import ludo.engine.Player.Color;
 
 public class Selector extends JDialog implements MouseListener{
     public static final String IMG_PATH ="images\\";
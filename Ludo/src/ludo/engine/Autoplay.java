@@ -0,0 +1,381 @@
+package ludo.engine;
+
+import java.io.IOException;
+import java.util.Arrays;
+import ludo.engine.RewardWeights.Feature;
+import static ludo.engine.MoveTable.ENTER_FINAL_TRACK;
+import static ludo.engine.MoveTable.GLOBE;
+import static ludo.engine.MoveTable.LAST_STAR;
+import static ludo.engine.MoveTable.NOT_ON_TRACK;
+import static ludo.engine.MoveTable.REACH_GOAL;
+import static ludo.engine.MoveTable.STAR;
+import static ludo.engine.Player.OUT_OF_BOARD;
+import static ludo.engine.Player.START_DISTANCE;
+
+public class Autoplay {
+    
+    
+     // The possible modes to control a computer-operated player
+     
+    public enum AutoplayMode {
+
+        
+         // Selects the next move by calculating the reward of all possible moves using a reward hash table.
+         
+        customAI,
+
+        
+         // Selects the next move by reading the reward value from a table generated by a qLearning algorithm.
+         
+        qLearning,
+
+        
+         // Selects the next move by choosing randomly from all possible moves.
+         
+        random,
+
+        
+         // Selects the next move by searching the next dice casts and the opponents' replies (see Expectiminimax).
+         
+        expectiminimax,
+
+        
+         // Selects the next move by playing out the rest of the round many times from the current position (see MonteCarloTreeSearch).
+         
+        monteCarlo,
+
+        
+         // Selects the next move by reading the value of the whole position after each move from a table learned by self-play
+         // (see PositionQLearning).
+         
+        positionQLearning};
+    
+    private final RandomStream r;
+    private final RewardWeights[] weights; //customAI reward weights of each seat
+    private final ThreatHistogram threats = new ThreatHistogram(); //opponent tokens on the main track, built once per decision
+    private static RewardWeights[] configWeights;
+    private int maxReward = -1; //bound of the rewards of the current weights, or -1 if it has not been computed
+    private static QLearning actionQLudo;
+    private DecisionCache cache;
+    private long configKey; //key of the weights and search settings the decisions depend on (see Zobrist.config)
+    private boolean configKeyValid;
+    private Expectiminimax expectiminimax;
+    private MonteCarloTreeSearch monteCarlo;
+
+    
+     // Initializes the random number generator and the custom AI reward weights.
+     
+    public Autoplay(){
+        this(RandomStream.create());
+    }
+    
+    
+     // Initializes the custom AI reward weights of every seat (read from RewardWeights.CONFIG_FILE if there is one),
+     // using the given random stream for the random mode.
+     
+    public Autoplay(RandomStream r){
+        this.r= r;  
+        this.weights = configWeights();
+        //the qTable of the qLearning mode is generated by running QLearning.main, which can be stopped and resumed
+    }
+    
+    //Reads the reward weights of the config file once, or uses the default weights if there is no file or it can not be read
+    private static synchronized RewardWeights[] configWeights(){
+        if(configWeights==null){
+            configWeights = new RewardWeights[4];
+            Arrays.fill(configWeights, RewardWeights.DEFAULT);
+            if(RewardWeights.CONFIG_FILE.exists()){
+                try{configWeights = RewardWeights.load(RewardWeights.CONFIG_FILE);}
+                catch(IOException ex){System.err.println(ex.getMessage()+", using the default reward weights");}
+            }
+        }
+        return configWeights.clone();
+    }
+    
+    
+     // Gets the customAI reward weights of the player with the given seat.
+     
+    public RewardWeights getWeights(int seat){
+        return this.weights[seat];
+    }
+    
+    
+     // Sets the customAI reward weights of the player with the given seat.
+     // The weights are part of the key of the cached decisions, so controllers with different weights can share a DecisionCache.
+     
+    public void setWeights(int seat, RewardWeights weights){
+        this.weights[seat] = weights;
+        this.maxReward = -1;
+        this.configKeyValid = false;
+    }
+    
+     // Gets the cache of decisions used by this controller, or null if decisions are not cached.
+     
+    public DecisionCache getCache(){
+        return this.cache;
+    }
+    
+    
+     // Sets the cache of decisions (which may be shared with other controllers and threads), or null to not cache decisions.
+     
+    public void setCache(DecisionCache cache){
+        this.cache = cache;
+    }
+    
+     // Gets the search used by the expectiminimax mode.
+     
+    public Expectiminimax getExpectiminimax(){
+        if(this.expectiminimax==null)
+            this.expectiminimax = new Expectiminimax(this);
+        return this.expectiminimax;
+    }
+    
+    
+     // Sets the search used by the expectiminimax mode, to change its depth and node budget.
+     
+    public void setExpectiminimax(Expectiminimax expectiminimax){
+        this.expectiminimax = expectiminimax;
+        this.configKeyValid = false;
+    }
+    
+    
+     // Gets the search used by the monteCarlo mode.
+     
+    public MonteCarloTreeSearch getMonteCarlo(){
+        if(this.monteCarlo==null)
+            this.monteCarlo = new MonteCarloTreeSearch(this.r.split());
+        return this.monteCarlo;
+    }
+    
+    
+     // Sets the search used by the monteCarlo mode, to change its time budget, threads and rollout policy.
+     
+    public void setMonteCarlo(MonteCarloTreeSearch monteCarlo){
+        this.monteCarlo = monteCarlo;
+    }
+    
+    //Reads the reward of each of the possible moves from the qTable (loaded once in memory) and select the token with the highest reward.
+    private int maxQToken(GameState game){
+        Player currentPlayer = game.getPlayers()[game.getCurrentPlayer()];
+        QTableFile qTable = QLearning.getTable();
+        int dice = game.getDice().getResult()-1;
+        int xTokens=game.getXTokens();
+        double qValue=0;
+        double maxQ=Double.NEGATIVE_INFINITY;
+        int maxQToken=xTokens==0 ? 0 : Integer.numberOfTrailingZeros(xTokens);
+     
+        if (game.getDice().getIsSix()){
+            for(Token token: currentPlayer.getTokens()){
+                if(token.getPosition()==OUT_OF_BOARD){
+                     return token.getIndex();           
+                }
+            }
+        }
+        for(int out = xTokens; out != 0; out &= out - 1){
+            int tokenIndex = Integer.numberOfTrailingZeros(out);
+            Token token= currentPlayer.getToken(tokenIndex);
+            int tokenPosition;
+            if (token.getFinalTrack())
+                tokenPosition= token.getPosition()+51;
+            else
+                tokenPosition = (token.getPosition()+52-currentPlayer.getPIndex()*START_DISTANCE)%52; 
+            
+            //System.out.printf("\nToken in position: %d\n",tokenPosition);
+            //qValue = actionQLudo.QTable[tokenPosition][game.getDice().getResult()-1];
+            qValue = qTable.get(dice, tokenPosition);
+            //System.out.printf("token %d: pos %d, qvalue %.15f\n",tokenIndex,currentPlayer.getToken(tokenIndex).getPosition(),qValue);
+            if (qValue>maxQ){
+                maxQ=qValue;
+                maxQToken=tokenIndex;
+            }
+        }
+        //System.out.printf("maxReward:%.15f, selectedToken:%d\n",maxQ,maxQToken);
+        return maxQToken;
+    }
+    
+    //Reads the value of each of the possible moves from the table of the positionQLearning mode (loaded once in memory)
+    //and selects the token with the highest value, reading the moves that were not seen in training as 0 like the training does.
+    //Without a table (an empty table), selects the token of the customAI mode.
+    private int maxPositionQToken(GameState game){
+        QValueMap values = PositionQLearning.getTable();
+        if(values.size()==0)
+            return maxRewardToken(game);
+        ThreatHistogram threats = getThreats(game);
+        long context = PositionQLearning.context(game);
+        double maxQ = 0;
+        int maxQToken = -1;
+        for(int out = game.getXTokens(); out != 0; out &= out - 1){
+            int tokenIndex = Integer.numberOfTrailingZeros(out);
+            double qValue = values.get(PositionQLearning.key(context, game, tokenIndex, threats), 0);
+            if(maxQToken<0||qValue>maxQ){
+                maxQ=qValue;
+                maxQToken=tokenIndex;
+            }
+        }
+        return Math.max(maxQToken, 0);
+    }
+    
+    //Calculates the rewards for each of the possible moves (the GameState's mask of active tokens) and selects the token with the maximum reward
+    private int maxRewardToken(GameState game){
+        Player currentPlayer = game.getPlayers()[game.getCurrentPlayer()];
+        ThreatHistogram threats=getThreats(game);
+        int xTokens=game.getXTokens();
+        int reward;
+        int maxReward=Integer.MIN_VALUE;
+        int maxRewardToken=xTokens==0 ? 0 : Integer.numberOfTrailingZeros(xTokens);
+     
+        for(int out = xTokens; out != 0; out &= out - 1){
+            int tokenIndex = Integer.numberOfTrailingZeros(out);
+            reward = getReward(game.getCurrentPlayer(),currentPlayer.getToken(tokenIndex), threats, game.getBoard().getSpecial(), game.getDice().getResult());
+            //System.out.printf("token %d: pos %d, reward %d\n",tokenIndex,currentPlayer.getToken(tokenIndex).getPosition(),reward);
+            if (reward>maxReward){
+                maxReward=reward;
+                maxRewardToken=tokenIndex;
+            }
+        }
+        //System.out.printf("maxReward:%d, selectedToken:%d\n",maxReward,maxRewardToken);
+        return maxRewardToken;
+    }
+    
+    //Calculates the reward for the current player of moving the token tIndex with the current dice result,
+    //given the histogram of the opponents' tokens of the position (see getThreats)
+    int reward(GameState game, int tIndex, ThreatHistogram threats){
+        return getReward(game.getCurrentPlayer(), game.getPlayer(game.getCurrentPlayer()).getToken(tIndex),
+                threats, game.getBoard().getSpecial(), game.getDice().getResult());
+    }
+    
+    //Gets a bound of the absolute value of the reward of any move of any seat (see RewardWeights.maxReward)
+    int maxReward(){
+        if(this.maxReward<0){
+            int max = 0;
+            for(RewardWeights w: this.weights)
+                max = Math.max(max, w.maxReward());
+            this.maxReward = max;
+        }
+        return this.maxReward;
+    }
+    
+    //Calculates the reward for a move by adding up the weights of the player for each of the verified conditions
+    //The destination of the move and the type of tile it lands on are read from the MoveTable
+    private int getReward (int pIndex, Token token, ThreatHistogram threats, boolean specialBoard, int diceResult){
+        RewardWeights w = this.weights[pIndex];
+        int reward=0;
+        int move = MoveTable.get(pIndex, PackedState.code(pIndex, token), diceResult);
+        int nextPosition = MoveTable.position(move);
+        if(token.getPosition()==OUT_OF_BOARD&&diceResult==6){
+            reward+=w.get(Feature.startToken);
+            //System.out.println("startToken: "+w.get(Feature.startToken));
+        }
+        else{
+            if(token.getFinalTrack()){
+                if(MoveTable.is(move, REACH_GOAL)){
+                    reward+=w.get(Feature.hitGoal);
+                    //System.out.println("hitGoal: "+w.get(Feature.hitGoal));
+                }
+                else{
+                    reward-=w.get(Feature.hitGoal)/2;
+                    //System.out.println("hitGoal: "+-w.get(Feature.hitGoal)/2);
+                }
+            }
+            else{
+                if(specialBoard){
+                    if(MoveTable.is(move, STAR)){
+                    reward+=w.get(Feature.hitStar);
+                    //System.out.println("hitStar: "+w.get(Feature.hitStar));
+                }
+                if(MoveTable.is(move, GLOBE)){
+                    reward+=w.get(Feature.hitGlobe);
+                    //System.out.println("hitGlobe: "+w.get(Feature.hitGlobe));
+                }}
+                if(MoveTable.is(move, ENTER_FINAL_TRACK)){
+                    reward+=w.get(Feature.startFinalTrack);
+                    //System.out.println("startFinalTrack: "+w.get(Feature.startFinalTrack));
+                }
+                if(nextPosition!=NOT_ON_TRACK){
+                    if(threats.count(nextPosition)!=0){
+                        reward+=w.get(Feature.sendHome);
+                        //System.out.println("sendHome: "+w.get(Feature.sendHome));
+                    }
+                    if(MoveTable.is(move, LAST_STAR)){
+                        reward+=w.get(Feature.hitLastStar);     
+                        //System.out.println("hitLastStar: "+w.get(Feature.hitLastStar));
+                    }
+                    int ao = w.get(Feature.aheadOpponent)*threats.behind(nextPosition);
+                    int bo = w.get(Feature.behindOpponent)*threats.ahead(nextPosition);
+                    if(ao!=0){
+                        reward+=ao;
+                        //System.out.println("aheadOpponent: "+ao);
+                    }
+                    if(bo!=0){
+                        reward+=bo;
+                        //System.out.println("behindOpponent: "+bo);
+                    }
+                }
+            }
+        }
+        return reward;
+    }
+    
+    
+     // Builds the histogram of the tokens of the current player's opponents on the main track.
+     // The histogram is reused by the next call, so it must be read before the next decision.
+     
+    public ThreatHistogram getThreats(GameState game){
+        return this.threats.build(game);
+    }
+    
+    //Gets the key of the reward weights of every seat and the depth and node budget of the expectiminimax search
+    private long configKey(){
+        if(!this.configKeyValid){
+            int depth = this.expectiminimax==null ? Expectiminimax.DEFAULT_DEPTH : this.expectiminimax.getDepth();
+            long budget = this.expectiminimax==null ? Expectiminimax.DEFAULT_BUDGET : this.expectiminimax.getBudget();
+            this.configKey = Zobrist.config(this.weights, depth, budget);
+            this.configKeyValid = true;
+        }
+        return this.configKey;
+    }
+    
+    //Selects a random token from all the possible options available (the GameState's mask of active tokens)
+    private int randomToken(GameState game){
+        int selectedToken=0;
+        int xTokens=game.getXTokens();
+        if(xTokens!=0)
+            selectedToken=PackedState.nthBit(xTokens, r.nextInt(Integer.bitCount(xTokens)));
+        return selectedToken;
+    }
+   
+    
+     // Selects the index of the token to be moved according to the player's AutoplayMode settings.
+     // The decisions of the deterministic modes are read from the cache if there is one, keyed by the hash of the position,
+     // the dice result, the players in the game, the mode and the configuration of this controller (the random and monteCarlo modes are not cached,
+     // as their decisions change from call to call).
+     
+    public int selectToken(GameState game){
+        AutoplayMode autoMode=game.getPlayers()[game.getCurrentPlayer()].getAutoMode();
+        boolean cached=this.cache!=null&&autoMode!=AutoplayMode.random&&autoMode!=AutoplayMode.monteCarlo;
+        long key=0;
+        if(cached){
+            key=game.getHash()^Zobrist.dice(game.getDice().getResult())^Zobrist.seats(game.xPlayersMask())^Zobrist.mode(autoMode)^configKey();
+            int token=this.cache.get(key);
+            if(token>=0)
+                return token;
+        }
+        int selectedToken=0;
+        switch(autoMode){
+            case customAI:{selectedToken = maxRewardToken(game); break;}
+            case qLearning:{selectedToken = maxQToken(game); break;}
+            case random:{selectedToken = randomToken(game); break;}
+            case expectiminimax:{selectedToken = getExpectiminimax().selectToken(game); break;}
+            case monteCarlo:{selectedToken = getMonteCarlo().selectToken(game); break;}
+            case positionQLearning:{selectedToken = maxPositionQToken(game); break;}
+        }
+        if(cached)
+            this.cache.put(key, selectedToken);
+        return selectedToken;
+    }
+}
+
+    
+
+  
+
@@ -0,0 +1,295 @@
+package ludo.engine;
+
+import java.io.PrintStream;
+import java.util.Locale;
+import ludo.engine.Autoplay.AutoplayMode;
+
+
+ // Micro-benchmarks of the hot paths of the engine and the computer players.
+ // Every case is measured on three representative positions taken from a seeded game (see Position):
+ // early game, a crowded mid-game board and the endgame, so the numbers are comparable between runs.
+ // Each case runs a number of warmup iterations followed by the measured iterations of a fixed duration,
+ // and reports the mean throughput with its standard deviation.
+ //
+ // Usage: java ludo.engine.Benchmark [filter] [iterations] [seconds]
+ // Only the cases whose name contains the filter are run (all of them by default).
+ // The GUI layout cases are in ludo.LayoutBenchmark.
+
+
+public class Benchmark {
+
+    public static final int DEFAULT_ITERATIONS = 5;
+    public static final double DEFAULT_SECONDS = 1.0;
+    public static final long SEED = 42;
+    public static final int QLEARNING_BATCH = 10000; //q-learning iterations per operation
+    public static final int DICE_BUFFER = 1 << 20; //dice results of the buffered dice
+
+    private static volatile int sink; //consumes the results so the JIT can not drop the measured code
+
+    private final PrintStream out;
+    private final String filter;
+    private final int iterations;
+    private final double seconds;
+
+
+     // One measured operation. Returns a value that depends on the work done, which is consumed by the harness.
+
+    public interface Case {
+        int run();
+    }
+
+
+     // The representative positions every case is measured on.
+
+    public enum Position {
+
+         // A few tokens out of the home area of each player.
+
+        early,
+
+         // The position of the game with the most tokens standing in the main track.
+
+        mid,
+
+         // Most of the tokens at the goal and at least one player finished.
+
+        end
+    }
+
+
+     // Initializes a benchmark that runs the cases matching the filter with the given number and duration of iterations.
+     // The results are printed to the standard output of the moment the benchmark is created.
+
+    public Benchmark(String filter, int iterations, double seconds) {
+        this.out = System.out;
+        this.filter = filter;
+        this.iterations = iterations;
+        this.seconds = seconds;
+    }
+
+    public static void main(String[] args) {
+        String filter = args.length > 0 ? args[0] : "";
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ITERATIONS;
+        double seconds = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_SECONDS;
+        new Benchmark(filter, iterations, seconds).runEngine();
+    }
+
+
+     // Runs the cases of the engine, the computer players and the q-learning algorithm.
+
+    public void runEngine() {
+        boolean special = GameState.DEFAULT_BOARD;
+        for (Position p : Position.values()) {
+            GameState game = newGame(GameState.DEFAULT_AUTOMODE, special);
+            PackedState rolling = position(p, special);
+            rolling.applyTo(game);
+            run("rollAndCheckActiveTokens/" + p, () -> {
+                game.rollAndCheckActiveTokens();
+                return game.getXTokens();
+            });
+        }
+        Dice random = new Dice(RandomStream.seeded(SEED));
+        run("rollDice/random", () -> {
+            random.rollDice(0);
+            return random.getResult();
+        });
+        Dice buffered = new Dice(new DiceBuffer(DICE_BUFFER, RandomStream.seeded(SEED)));
+        run("rollDice/buffer", () -> {
+            buffered.rollDice(0);
+            return buffered.getResult();
+        });
+        for (Position p : Position.values()) {
+            GameState game = newGame(GameState.DEFAULT_AUTOMODE, special);
+            toMove(position(p, special)).applyTo(game);
+            int[] tokens = tokens(game.getXTokens());
+            int[] k = {0};
+            run("selectAndMove/" + p, () -> {
+                game.makeMove(tokens[k[0]++ % tokens.length]);
+                game.unmake();
+                return game.getTurnCount();
+            });
+        }
+        for (Position p : Position.values()) {
+            GameState game = newGame(GameState.DEFAULT_AUTOMODE, special);
+            position(p, special).applyTo(game);
+            int seat = game.getCurrentPlayer();
+            int onTrack = 0; //tokens of the main track, the only ones selectAndMove checks
+            for (int out = game.getPlayer(seat).getTokensOut(); out != 0; out &= out - 1) {
+                int t = Integer.numberOfTrailingZeros(out);
+                if (!game.getPlayer(seat).getToken(t).getFinalTrack())
+                    onTrack |= 1 << t;
+            }
+            int[] tokens = tokens(onTrack);
+            int[] tokensOut = new int[4];
+            int[][] positions = new int[4][4];
+            for (int s = 0; s < 4; s++) {
+                tokensOut[s] = game.getPlayer(s).getTokensOut();
+                for (int t = 0; t < 4; t++)
+                    positions[s][t] = game.getPlayer(s).getToken(t).getPosition();
+            }
+            //the tokens sent home are put back like GameState.unmake does, so every operation checks the same position
+            run("checkOtherTokens/" + p, () -> {
+                for (int t : tokens)
+                    game.checkOtherTokens(seat, t);
+                int result = 0;
+                for (int s = 0; s < 4; s++) {
+                    Player player = game.getPlayer(s);
+                    for (int captured = tokensOut[s] & ~player.getTokensOut(); captured != 0; captured &= captured - 1) {
+                        int t = Integer.numberOfTrailingZeros(captured);
+                        player.restore(t, positions[s][t], true, false, false);
+                        result++;
+                    }
+                }
+                return result;
+            });
+        }
+        if (matches("selectToken/" + AutoplayMode.qLearning) && !QLearning.tableFile.exists() && !QLearning.inputFile.exists())
+            out.println("warning: " + QLearning.tableFile + " not found, the qLearning cases use an empty qTable");
+        if (matches("selectToken/" + AutoplayMode.positionQLearning) && !PositionQLearning.tableFile.exists())
+            out.println("warning: " + PositionQLearning.tableFile + " not found, the positionQLearning cases play like customAI");
+        for (AutoplayMode mode : AutoplayMode.values()) {
+            for (Position p : Position.values()) {
+                GameState game = newGame(mode, special);
+                game.setComputerPlayer(new Autoplay(RandomStream.seeded(SEED)));
+                toMove(position(p, special)).applyTo(game);
+                run("selectToken/" + mode + "/" + p, () -> game.getComputerPlayer().selectToken(game));
+            }
+        }
+        for (Position p : Position.values()) {
+            GameState game = newGame(AutoplayMode.customAI, special);
+            Autoplay computerPlayer = new Autoplay(RandomStream.seeded(SEED));
+            computerPlayer.setCache(new DecisionCache());
+            game.setComputerPlayer(computerPlayer);
+            toMove(position(p, special)).applyTo(game);
+            run("selectToken/" + AutoplayMode.customAI + "/cached/" + p, () -> computerPlayer.selectToken(game));
+        }
+        QLearning qLearning = new QLearning(RandomStream.seeded(SEED));
+        run("QLearning.train/" + QLEARNING_BATCH, () -> {
+            qLearning.train(QLEARNING_BATCH);
+            return (int) QLearning.QTable[0][0];
+        }, QLEARNING_BATCH, "iterations/s");
+    }
+
+
+     // Measures a case and prints its throughput in operations per second.
+
+    public void run(String name, Case c) {
+        run(name, c, 1, "ops/s");
+    }
+
+
+     // Measures a case that does the given number of units of work per operation and prints its throughput in units per second.
+
+    public void run(String name, Case c, int units, String unit) {
+        if (!matches(name))
+            return;
+        int warmup = Math.max(1, iterations / 2);
+        for (int i = 0; i < warmup; i++)
+            iteration(c);
+        double[] rates = new double[iterations];
+        for (int i = 0; i < iterations; i++)
+            rates[i] = iteration(c) * units;
+        double mean = 0, var = 0;
+        for (double r : rates)
+            mean += r / iterations;
+        for (double r : rates)
+            var += (r - mean) * (r - mean) / Math.max(iterations - 1, 1);
+        out.println(String.format(Locale.ROOT, "%-42s %14.0f %s  +- %5.1f%%  %10.1f ns/op",
+                name, mean, unit, 100 * Math.sqrt(var) / Math.max(mean, 1e-9), 1e9 * units / Math.max(mean, 1e-9)));
+    }
+
+    private boolean matches(String name) {
+        return name.contains(this.filter);
+    }
+
+    // Runs the case repeatedly for the duration of one iteration and returns the number of operations per second.
+
+    private double iteration(Case c) {
+        long duration = (long) (seconds * 1e9);
+        long ops = 0, start = System.nanoTime(), elapsed;
+        int acc = 0;
+        do {
+            for (int i = 0; i < 256; i++)
+                acc += c.run();
+            ops += 256;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < duration);
+        sink += acc;
+        return ops * 1e9 / elapsed;
+    }
+
+
+     // Creates a round with all 4 players computer-operated with the given AutoplayMode, with seeded dice.
+
+    public static GameState newGame(AutoplayMode mode, boolean special) {
+        GameState game = Simulation.newGame(mode, special);
+        game.setDice(new Dice(RandomStream.seeded(SEED)));
+        return game;
+    }
+
+
+     // Gets the given representative position, where the current player has to roll the dice.
+     // The positions are taken from a game between customAI players with seeded dice, so they are the same in every run.
+
+    public static PackedState position(Position p, boolean special) {
+        GameState game = Simulation.newGame(AutoplayMode.customAI, special);
+        game.setDice(new Dice(RandomStream.seeded(SEED)));
+        game.setComputerPlayer(new Autoplay(RandomStream.seeded(SEED)));
+        PackedState best = null;
+        int bestOnTrack = -1;
+        while (game.getPlaying() && game.getDice().getDiceRollCount() < Simulation.MAX_ROLLS) {
+            if (game.getDiceRoller()) {
+                int out = 0, onTrack = 0, goal = 0;
+                for (Player player : game.getPlayers()) {
+                    out += Integer.bitCount(player.getTokensOut());
+                    goal += player.getGoal();
+                    for (Token token : player.getTokens())
+                        if (token.getOut() && !token.getFinalTrack())
+                            onTrack++;
+                }
+                if (p == Position.early && out >= 6)
+                    return PackedState.from(game);
+                if (p == Position.end && goal >= 10 && !game.getWinners().isEmpty())
+                    return PackedState.from(game);
+                if (p == Position.mid && onTrack > bestOnTrack) {
+                    bestOnTrack = onTrack;
+                    best = PackedState.from(game);
+                }
+                game.rollAndCheckActiveTokens();
+                game.checkMoveOrPass();
+            } else {
+                game.autoMove();
+            }
+        }
+        if (best == null)
+            throw new IllegalStateException("Position " + p + " not reached");
+        return best;
+    }
+
+
+     // Gets a copy of the position after the current player rolls the dice result with the most tokens that can be moved.
+
+    public static PackedState toMove(PackedState rolling) {
+        GameState game = Simulation.newGame(AutoplayMode.customAI, rolling.getSpecial());
+        rolling.applyTo(game);
+        int best = 1, bestMoves = -1;
+        for (int d = 1; d <= 6; d++) {
+            game.makeRoll(d);
+            int moves = game.getDiceRoller() ? 0 : Integer.bitCount(game.getXTokens());
+            if (moves > bestMoves) {
+                bestMoves = moves;
+                best = d;
+            }
+            game.unmake();
+        }
+        game.makeRoll(best);
+        return PackedState.from(game);
+    }
+
+    private static int[] tokens(int mask) {
+        int[] tokens = new int[Integer.bitCount(mask)];
+        for (int i = 0; i < tokens.length; i++, mask &= mask - 1)
+            tokens[i] = Integer.numberOfTrailingZeros(mask);
+        return tokens;
+    }
+}
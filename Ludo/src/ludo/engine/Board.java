@@ -0,0 +1,124 @@
+package ludo.engine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+
+ // Represents a Ludo board.
+ // This object contains the following information:
+
+ // Whether the board contains special tiles such as stars and globes
+ // The position of special tiles, as a table of attributes of each tile of the main track and a table of star jumps
+ // The images of the board are attached by the GUI (see ludo.Assets), so a Board can be created without a display
+
+
+public class Board {
+
+    public static final int TRACK_LENGTH = 52;
+
+    // Attributes of a tile (see tile)
+    public static final int START = 1; //start tile of a player
+    public static final int GLOBE = 1 << 1;
+    public static final int STAR = 1 << 2;
+    public static final int OWN_START = 1 << 3; //start tile of the given player
+    public static final int LAST_STAR = 1 << 4; //last star of the given player before its final track
+
+    private static final byte[] TILES = new byte[4 * TRACK_LENGTH]; //attributes of each tile [0-51] for each seat
+    private static final byte[] NEXT_STAR = new byte[TRACK_LENGTH]; //position of the first star after each tile
+
+    static {
+        int[] starts = {0, 13, 26, 39};
+        int[] globes = {8, 21, 34, 47};
+        int[] stars = {5, 11, 18, 24, 31, 37, 44, 50};
+        for (int seat = 0; seat < 4; seat++) {
+            for (int pos : starts)
+                TILES[seat * TRACK_LENGTH + pos] |= pos == starts[seat] ? START | OWN_START : START;
+            for (int pos : globes)
+                TILES[seat * TRACK_LENGTH + pos] |= GLOBE;
+            for (int pos : stars)
+                TILES[seat * TRACK_LENGTH + pos] |= STAR;
+            //the star just before the tile from where the player's tokens enter the final track
+            TILES[seat * TRACK_LENGTH + (starts[seat] + TRACK_LENGTH - 2) % TRACK_LENGTH] |= LAST_STAR;
+        }
+        for (int pos = 0; pos < TRACK_LENGTH; pos++) {
+            int next = (pos + 1) % TRACK_LENGTH;
+            while ((TILES[next] & STAR) == 0)
+                next = (next + 1) % TRACK_LENGTH;
+            NEXT_STAR[pos] = (byte) next;
+        }
+    }
+
+    // Views of the tile table, kept for compatibility
+    public static final List<Integer> START_TILES = tiles(START);
+    public static final List<Integer> GLOBE_TILES = tiles(GLOBE);
+    public static final List<Integer> STAR_TILES = tiles(STAR);
+
+    private boolean special;
+
+
+     // Initializes an instance of Board according to the parameter special
+     // @param special true if the board should contain special tiles (stars and globes) or false if not
+
+    public Board(boolean special) {
+        this.special = special;
+    }
+
+
+     // Gets the attributes (START, GLOBE, STAR) of the tile pos of the main track, or 0 if pos is not a tile of the main track.
+
+    public static int tile(int pos) {
+        return pos >= 0 && pos < TRACK_LENGTH ? TILES[pos] & (START | GLOBE | STAR) : 0;
+    }
+
+
+     // Gets the attributes of the tile pos of the main track for the player with the given seat:
+     // START, GLOBE and STAR, and OWN_START and LAST_STAR for that player. Gets 0 if pos is not a tile of the main track.
+
+    public static int tile(int seat, int pos) {
+        return pos >= 0 && pos < TRACK_LENGTH ? TILES[seat * TRACK_LENGTH + pos] : 0;
+    }
+
+
+     // Indicates whether the tile pos of the main track has the given attribute.
+
+    public static boolean is(int pos, int attribute) {
+        return (tile(pos) & attribute) != 0;
+    }
+
+
+     // Gets the position of the star where a token landing on the tile pos [0-51] jumps to: the first star after pos.
+
+    public static int nextStar(int pos) {
+        return NEXT_STAR[pos];
+    }
+
+    private static List<Integer> tiles(int attribute) {
+        List<Integer> tiles = new ArrayList<>();
+        for (int pos = 0; pos < TRACK_LENGTH; pos++)
+            if (is(pos, attribute))
+                tiles.add(pos);
+        return Collections.unmodifiableList(tiles);
+    }
+
+
+     // Indicates whether the board includes special tiles (stars and globes)
+
+    public boolean getSpecial() {
+        return this.special;
+    }
+
+
+     // Sets the board layout to regular/special given the boolean special
+
+    public void setSpecial(boolean special) {
+        this.special = special;
+    }
+
+
+     // Sets the board layout to regular/special given the string special
+
+    public void setSpecial(String special) {
+        this.special = special.equalsIgnoreCase("special");
+    }
+}
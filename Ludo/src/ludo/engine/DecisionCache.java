@@ -0,0 +1,102 @@
+package ludo.engine;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+
+ // Transposition cache of the tokens selected by the computer players, shared by any number of games and threads.
+ // The key is the Zobrist hash of the position combined with the dice result, the players still in the game, the AutoplayMode
+ // and the configuration of the controller (reward weights and search settings, see Autoplay.selectToken).
+ // The cache has a fixed number of entries (a power of two) and each key can only be stored in the entry given by its lowest bits:
+ // a new decision always replaces the one stored in its entry, so the most recent decisions are kept.
+ //
+ // Entries are written without locks. Each entry is two longs, the key XOR the decision and the decision,
+ // so an entry half written by another thread does not match its key and counts as a miss.
+
+
+public class DecisionCache {
+
+    public static final int DEFAULT_ENTRIES = 1 << 20;
+
+    private static final long VALID = 1L << 2;
+    private static final long TOKEN_MASK = 3;
+
+    private final AtomicLongArray table;
+    private final int mask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+
+     // Initializes a cache with the default number of entries.
+
+    public DecisionCache() {
+        this(DEFAULT_ENTRIES);
+    }
+
+
+     // Initializes a cache with the given number of entries, rounded up to a power of two.
+
+    public DecisionCache(int entries) {
+        if (entries <= 0 || entries > 1 << 29)
+            throw new IllegalArgumentException("Entries must be in the range [1, 2^29]: " + entries);
+        int size = entries == 1 ? 1 : Integer.highestOneBit(entries - 1) << 1;
+        this.table = new AtomicLongArray(2 * size);
+        this.mask = size - 1;
+    }
+
+
+     // Gets the token stored for the given key.
+     // @return int number [0-3] representing the index of the token, or -1 if the key is not in the cache
+
+    public int get(long key) {
+        int i = 2 * ((int) key & mask);
+        long data = table.get(i + 1);
+        if ((data & VALID) != 0 && (table.get(i) ^ data) == key) {
+            hits.increment();
+            return (int) (data & TOKEN_MASK);
+        }
+        misses.increment();
+        return -1;
+    }
+
+
+     // Stores the token selected for the given key, replacing the entry it maps to.
+
+    public void put(long key, int tIndex) {
+        int i = 2 * ((int) key & mask);
+        long data = VALID | tIndex;
+        table.lazySet(i, key ^ data);
+        table.lazySet(i + 1, data);
+    }
+
+
+     // Gets the number of entries of the cache.
+
+    public int getEntries() {
+        return mask + 1;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+
+     // Removes every decision and resets the counters.
+
+    public void clear() {
+        for (int i = 0; i < table.length(); i++)
+            table.set(i, 0);
+        hits.reset();
+        misses.reset();
+    }
+
+    @Override
+    public String toString() {
+        long h = getHits(), m = getMisses();
+        return String.format("decision cache: %d entries, %d hits, %d misses (%.1f%% hits)", getEntries(), h, m, 100.0 * h / Math.max(h + m, 1));
+    }
+}
@@ -0,0 +1,143 @@
+package ludo.engine;
+
+
+ // Represents a regular dice with 6 possible outcomes.
+ // This object contains the following information:
+ 
+ // The result obtained after casting the dice
+ // The player that is currently holding the dice
+ // The number of times the dice has been casted at any given moment
+ // The results come from a RandomStream, or from a DiceBuffer of pre-generated results in batch simulations
+ // The images, animation and user input of the dice live in the GUI (see ludo.AnimatedDice)
+
+public class Dice{
+
+    private final RandomStream random;
+    private final DiceBuffer rolls;
+    private int next, left; //index of the next result read from rolls, results left in word
+    private long word; //packed results of rolls being read
+    private int result = 3;
+    private int pIndex; //player holding the dice
+    private boolean isSix = false;
+    private int diceRollCount;
+    
+    
+     // Initializes an instance of Dice.
+     
+    public Dice(){
+        this(RandomStream.create());
+    }
+    
+    
+     // Initializes an instance of Dice that casts its results with the given random stream.
+     
+    public Dice(RandomStream random){
+        this.random = random;
+        this.rolls = null;
+    }
+    
+    
+     // Initializes an instance of Dice that reads its results in order from the given buffer, starting over at its end.
+     // The buffer can be shared, each Dice keeps its own position in the sequence.
+     
+    public Dice(DiceBuffer rolls){
+        this.random = null;
+        this.rolls = rolls;
+    }
+    
+    
+     // Gets the integer number in the range [1-6] obtained after casting the dice.
+     // @return the outcome after a dice roll in the range [1-6].
+     
+    public int getResult() {
+        return this.result;
+    }
+    
+    
+     // Sets the dice result to a given number.
+     
+    public void setResult(int result) {
+        this.result = result;
+        this.isSix = this.result == 6;
+    }
+    
+    
+     //Represents the number of times the dice has been casted during a game.
+     // @return the count of total dice-casts
+     
+    public int getDiceRollCount() {
+        return this.diceRollCount;
+    }
+
+   
+     // Gets a new dice result by the same player/holder.
+     
+    public void reRoll() {
+        this.result = this.roll();
+        this.isSix = this.result == 6;
+    }
+
+    
+     // Gets the index of the player currently holding the dice.
+     // @return int number [0-3] representing the index of the player holding the dice
+     
+    public int getHolder() {
+        return this.pIndex;
+    }
+
+    
+     // Hands the dice to the player with the given index.
+     // @param pIndex int number [0-3] representing the index of the player receiving the dice
+     
+    public void setHolder(int pIndex) {
+        this.pIndex = pIndex;
+    }
+
+    
+     // Indicates whether the dice result is six.
+     
+    public boolean getIsSix() {
+        return this.isSix;
+    }
+    
+    
+     // Simulates that a dice result is equal to six or not equal to six.
+     // This method is meant to be used for testing/debugging purposes.
+     
+    public void setIsSix(boolean isSix) {
+        this.isSix = isSix;
+    }
+    
+    
+     // The player with index pIndex rolls the dice.
+     // @param pIndex number [0-3] representing the index of the player that will cast the dice
+     
+    public void rollDice(int pIndex) {
+        this.pIndex = pIndex;
+        this.result = this.roll();
+        this.isSix = this.result == 6;
+        this.diceRollCount++;
+    }
+
+    
+     //Generates a dice result.
+     // @return the outcome or a dice roll in the range [1-6].
+     
+    public int roll() {
+        if (this.rolls == null) {
+            this.result = random.nextInt(6) + 1;
+        } else {
+            if (this.left == 0) {
+                if (this.next == this.rolls.size())
+                    this.next = 0;
+                this.word = this.rolls.word(this.next / DiceBuffer.ROLLS_PER_WORD);
+                this.left = Math.min(DiceBuffer.ROLLS_PER_WORD, this.rolls.size() - this.next);
+            }
+            this.result = (int) this.word & 7;
+            this.word >>>= DiceBuffer.ROLL_BITS;
+            this.left--;
+            this.next++;
+        }
+        return this.result;
+    }
+}
@@ -0,0 +1,93 @@
+package ludo.engine;
+
+
+ // Pre-generated sequence of dice results for batch simulation.
+ // The results are packed 3 bits per roll, 21 rolls per long, and are filled in bulk from a RandomStream.
+ // A buffer is not modified while it is read, so the same sequence can be served to any number of Dice at once,
+ // for example to replay the same dice casts against different AutoplayModes (see Dice(DiceBuffer)).
+
+
+public final class DiceBuffer {
+
+    static final int ROLL_BITS = 3;
+    static final int ROLLS_PER_WORD = 21;
+    private static final int ROLL_MASK = (1 << ROLL_BITS) - 1;
+
+    private final long[] words;
+    private final int size;
+
+
+     // Initializes a buffer of the given number of dice results, filled from the given random stream.
+
+    public DiceBuffer(int size, RandomStream random) {
+        this(size);
+        fill(random);
+    }
+
+
+     // Initializes a buffer of the given number of dice results, all of them 1 until they are set.
+
+    public DiceBuffer(int size) {
+        if (size <= 0)
+            throw new IllegalArgumentException("Size must be positive: " + size);
+        this.size = size;
+        this.words = new long[(size + ROLLS_PER_WORD - 1) / ROLLS_PER_WORD];
+        for (int i = 0; i < size; i++)
+            set(i, 1);
+    }
+
+
+     // Sets the dice result [1-6] at the given index of the sequence, for example to replay recorded dice casts.
+     // Must not be called while the buffer is being read by a Dice.
+
+    public void set(int i, int dice) {
+        int shift = ROLL_BITS * (i % ROLLS_PER_WORD);
+        long word = words[i / ROLLS_PER_WORD] & ~((long) ROLL_MASK << shift);
+        words[i / ROLLS_PER_WORD] = word | (long) (dice & ROLL_MASK) << shift;
+    }
+
+
+     // Replaces every result of the buffer with new results from the given random stream, without allocating.
+     // Every 3 bit field of a random long is a candidate result, and the values 6 and 7 are discarded so all results are equally likely.
+
+    public void fill(RandomStream random) {
+        long bits = 0;
+        int left = 0;
+        for (int w = 0; w < words.length; w++) {
+            long word = 0;
+            int rolls = Math.min(ROLLS_PER_WORD, size - w * ROLLS_PER_WORD);
+            for (int i = 0; i < rolls; ) {
+                if (left == 0) {
+                    bits = random.nextLong();
+                    left = ROLLS_PER_WORD;
+                }
+                int value = (int) bits & ROLL_MASK;
+                bits >>>= ROLL_BITS;
+                left--;
+                if (value < 6)
+                    word |= (long) (value + 1) << (ROLL_BITS * i++);
+            }
+            words[w] = word;
+        }
+    }
+
+
+     // Gets the number of dice results in the buffer.
+
+    public int size() {
+        return this.size;
+    }
+
+
+     // Gets the dice result [1-6] at the given index of the sequence.
+
+    public int get(int i) {
+        return (int) (words[i / ROLLS_PER_WORD] >>> (ROLL_BITS * (i % ROLLS_PER_WORD))) & ROLL_MASK;
+    }
+
+    // Gets the long holding the results from w * ROLLS_PER_WORD on, the first one in the lowest bits.
+
+    long word(int w) {
+        return words[w];
+    }
+}
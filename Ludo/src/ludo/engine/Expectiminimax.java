@@ -0,0 +1,307 @@
+package ludo.engine;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import ludo.engine.Autoplay.AutoplayMode;
+import ludo.engine.Player.Color;
+
+
+ // Search of the expectiminimax AutoplayMode.
+ // Looks ahead a number of dice casts (the depth) over every dice result and every reply of the opponents, making and taking back
+ // the moves on the GameState itself (see GameState.makeRoll, makeMove and unmake). The opponents are assumed to play against
+ // the searching player. The value of a line of play is the sum of the rewards of its moves (see RewardWeights),
+ // added for the searching player's moves and subtracted for the opponents' moves.
+ //
+ // Every move is worth at most the evaluator's maxReward in absolute value, so the value below a chance node is bounded, and the chance nodes
+ // are pruned with Star1 (cut as soon as the remaining dice results can not bring the average back into the window) and
+ // Star2 (first probe the first reply to every dice result, to get a bound of each result before searching them).
+ // The depth is searched iteratively from 1: if the node budget runs out, the move of the last complete depth is played.
+ //
+ // Usage: java ludo.engine.Expectiminimax [depth] [budget] [games] [opponentMode] [regular|special]
+ // Plays games of the expectiminimax mode (yellow) against three players of the opponent mode and reports the search statistics.
+
+
+public class Expectiminimax {
+
+    public static final int DEFAULT_DEPTH = 2;
+    public static final long DEFAULT_BUDGET = 100000;
+    private static final double EPSILON = 1e-9; //rounding of the averages, far below the smallest difference of two values
+
+    private final Autoplay evaluator;
+    private final int depth;
+    private final long budget;
+    private final Stats stats;
+    private final int[][] moves; //tokens of the decision at each ply, best reward first
+    private final int[][] rewards; //reward of each of those tokens for the player that moves
+    private final double[][] lo, hi; //bounds of the value of each dice result at each depth of a chance node
+
+    private GameState game;
+    private int rootSeat;
+    private long nodes;
+    private boolean aborted;
+
+
+     // Statistics of the searches, which can be shared by the searches of different games and threads.
+
+    public static class Stats {
+
+        private final LongAdder searches = new LongAdder();
+        private final LongAdder nodes = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder depths = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        void add(long nodes, long nanos, int depth) {
+            this.searches.increment();
+            this.nodes.add(nodes);
+            this.nanos.add(nanos);
+            this.depths.add(depth);
+            this.maxNanos.accumulate(nanos);
+        }
+
+        public long getSearches() {
+            return searches.sum();
+        }
+
+        public long getNodes() {
+            return nodes.sum();
+        }
+
+
+         // Gets the number of nodes (rolls and moves) searched per second.
+
+        public double getNodesPerSecond() {
+            return nodes.sum() * 1e9 / Math.max(nanos.sum(), 1);
+        }
+
+        @Override
+        public String toString() {
+            long s = Math.max(getSearches(), 1);
+            return String.format("%d searches, %.0f nodes/s, %.0f nodes/search, depth %.2f, %.3f ms/search (max %.3f ms)",
+                    getSearches(), getNodesPerSecond(), (double) getNodes() / s, (double) depths.sum() / s,
+                    nanos.sum() / 1e6 / s, maxNanos.get() / 1e6);
+        }
+    }
+
+
+     // Initializes a search with the default depth and node budget, evaluating the moves with the rewards of the given Autoplay.
+
+    public Expectiminimax(Autoplay evaluator) {
+        this(evaluator, DEFAULT_DEPTH, DEFAULT_BUDGET, new Stats());
+    }
+
+
+     // Initializes a search that looks ahead the given number of dice casts, and searches at most budget nodes per decision.
+
+    public Expectiminimax(Autoplay evaluator, int depth, long budget, Stats stats) {
+        if (depth < 0)
+            throw new IllegalArgumentException("Depth must not be negative: " + depth);
+        this.evaluator = evaluator;
+        this.depth = depth;
+        this.budget = budget;
+        this.stats = stats;
+        this.moves = new int[depth + 1][4];
+        this.rewards = new int[depth + 1][4];
+        this.lo = new double[depth + 1][7];
+        this.hi = new double[depth + 1][7];
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getBudget() {
+        return budget;
+    }
+
+    public Stats getStats() {
+        return stats;
+    }
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_DEPTH;
+        long budget = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_BUDGET;
+        int games = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        AutoplayMode opponent = args.length > 3 ? AutoplayMode.valueOf(args[3]) : AutoplayMode.customAI;
+        boolean special = args.length > 4 ? args[4].equalsIgnoreCase("special") : GameState.DEFAULT_BOARD;
+
+        Stats stats = new Stats();
+        RandomStream master = RandomStream.seeded(games);
+        int[] places = new int[4];
+        for (int g = 0; g < games; g++) {
+            List<AutoplayMode> modes = Arrays.asList(AutoplayMode.expectiminimax, opponent, opponent, opponent);
+            GameState game = new GameState(Arrays.asList(Color.values()), Arrays.asList(true, true, true, true), modes, special);
+            game.setDice(new Dice(master.split()));
+            Autoplay computerPlayer = new Autoplay(master.split());
+            computerPlayer.setExpectiminimax(new Expectiminimax(computerPlayer, depth, budget, stats));
+            game.setComputerPlayer(computerPlayer);
+            Simulation.play(game);
+            places[game.getWinners().indexOf(0)]++;
+        }
+        System.out.printf("expectiminimax depth %d, budget %d vs %s, %d games: places %s%n", depth, budget, opponent, games, Arrays.toString(places));
+        System.out.println(stats);
+    }
+
+
+     // Selects the token of the current player of the game with the best expected value.
+     // The game is left in the same state.
+
+    public int selectToken(GameState game) {
+        long start = System.nanoTime();
+        this.game = game;
+        this.rootSeat = game.getCurrentPlayer();
+        this.nodes = 0;
+        int n = order(0);
+        int best = moves[0][0];
+        int completed = 0;
+        if (n > 1) {
+            for (int d = 1; d <= depth; d++) {
+                this.aborted = false;
+                int choice = root(d);
+                if (this.aborted)
+                    break;
+                best = choice;
+                completed = d;
+            }
+        }
+        this.game = null;
+        stats.add(nodes, System.nanoTime() - start, completed);
+        return best;
+    }
+
+    // Searches every move of the root with the given depth and returns the best one.
+
+    private int root(int depthLeft) {
+        int n = order(0);
+        double alpha = Double.NEGATIVE_INFINITY;
+        int best = moves[0][0];
+        for (int k = 0; k < n; k++) {
+            int t = moves[0][k];
+            double r = rewards[0][k];
+            game.makeMove(t);
+            nodes++;
+            double v = r + chance(depthLeft, alpha - r, Double.POSITIVE_INFINITY);
+            game.unmake();
+            if (aborted)
+                return best;
+            if (v > alpha + EPSILON) { //a bound equal to alpha may come back a rounding above it
+                alpha = v;
+                best = t;
+            }
+        }
+        return best;
+    }
+
+    // Chance node: the player whose turn it is rolls the dice. Returns the expected value of the next depthLeft casts.
+
+    private double chance(int depthLeft, double alpha, double beta) {
+        if (depthLeft == 0 || !game.getPlaying())
+            return 0;
+        if (nodes >= budget) {
+            aborted = true;
+            return 0;
+        }
+        double upper = (double) evaluator.maxReward() * depthLeft, lower = -upper; //read every time, as the weights can change
+        double[] lo = this.lo[depthLeft], hi = this.hi[depthLeft];
+        double sumLo = 0, sumHi = 0;
+
+        //Star2: the first reply to each dice result is a bound of the value of that result
+        for (int d = 1; d <= 6; d++) {
+            lo[d] = lower;
+            hi[d] = upper;
+            game.makeRoll(d);
+            nodes++;
+            if (!game.getDiceRoller()) {
+                double probe = decision(depthLeft - 1, lower, upper, true);
+                if (game.getCurrentPlayer() == rootSeat)
+                    lo[d] = probe;
+                else
+                    hi[d] = probe;
+            }
+            game.unmake();
+            if (aborted)
+                return 0;
+            sumLo += lo[d];
+            sumHi += hi[d];
+        }
+        if (sumLo >= 6 * beta)
+            return sumLo / 6;
+        if (sumHi <= 6 * alpha)
+            return sumHi / 6;
+
+        //Star1: search each result with the window that can still change the average
+        double sum = 0;
+        for (int d = 1; d <= 6; d++) {
+            sumLo -= lo[d];
+            sumHi -= hi[d];
+            double a = 6 * alpha - sum - sumHi;
+            double b = 6 * beta - sum - sumLo;
+            game.makeRoll(d);
+            nodes++;
+            double v = game.getDiceRoller()
+                    ? chance(depthLeft - 1, Math.max(a, lower), Math.min(b, upper))
+                    : decision(depthLeft - 1, Math.max(a, lo[d]), Math.min(b, hi[d]), false);
+            game.unmake();
+            if (aborted)
+                return 0;
+            sum += v;
+            if (v <= a)
+                return (sum + sumHi) / 6;
+            if (v >= b)
+                return (sum + sumLo) / 6;
+        }
+        return sum / 6;
+    }
+
+    // Decision node: the current player moves one of its active tokens, the searching player maximizing the value and the
+    // opponents minimizing it. A probe only searches the move with the best reward.
+
+    private double decision(int depthLeft, double alpha, double beta, boolean probe) {
+        int ply = depth - depthLeft;
+        int n = order(ply);
+        boolean max = game.getCurrentPlayer() == rootSeat;
+        double best = max ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        for (int k = 0; k < (probe ? 1 : n); k++) {
+            int t = moves[ply][k];
+            double r = max ? rewards[ply][k] : -rewards[ply][k];
+            game.makeMove(t);
+            nodes++;
+            double v = r + chance(depthLeft, alpha - r, beta - r);
+            game.unmake();
+            if (aborted)
+                return 0;
+            if (max) {
+                best = Math.max(best, v);
+                alpha = Math.max(alpha, v);
+            } else {
+                best = Math.min(best, v);
+                beta = Math.min(beta, v);
+            }
+            if (alpha >= beta)
+                break;
+        }
+        return best;
+    }
+
+    // Stores the active tokens of the current player at the given ply, sorted by reward (best first), and returns how many there are.
+
+    private int order(int ply) {
+        int[] m = moves[ply], r = rewards[ply];
+        ThreatHistogram threats = evaluator.getThreats(game);
+        int n = 0;
+        for (int x = game.getXTokens(); x != 0; x &= x - 1) {
+            int t = Integer.numberOfTrailingZeros(x);
+            int reward = evaluator.reward(game, t, threats);
+            int i = n++;
+            for (; i > 0 && r[i - 1] < reward; i--) {
+                m[i] = m[i - 1];
+                r[i] = r[i - 1];
+            }
+            m[i] = t;
+            r[i] = reward;
+        }
+        return n;
+    }
+}
@@ -0,0 +1,59 @@
+package ludo.engine;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+
+ // Reads the GameRecords of a log file written by GameLogWriter, one after another.
+
+
+public class GameLogReader implements AutoCloseable {
+
+    private final DataInputStream in;
+    private final File file;
+
+
+     // Opens the given log file and checks its header.
+     // @throws IOException if the file can not be read or is not a game log of a supported version
+
+    public GameLogReader(File file) throws IOException {
+        this.file = file;
+        this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), GameLogWriter.BATCH_SIZE));
+        try {
+            if (in.readInt() != GameLogWriter.MAGIC)
+                throw new IOException(file + " is not a game log");
+            int version = in.readInt();
+            if (version != GameLogWriter.VERSION)
+                throw new IOException(file + ": unsupported game log version " + version);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+
+     // Reads the next record of the file into the given record.
+     // @return false if there are no more records
+
+    public boolean next(GameRecord record) throws IOException {
+        in.mark(1);
+        if (in.read() < 0)
+            return false;
+        in.reset();
+        try {
+            record.readFrom(in);
+        } catch (EOFException e) {
+            throw new IOException(file + ": truncated record", e);
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
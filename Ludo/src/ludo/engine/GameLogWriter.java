@@ -0,0 +1,179 @@
+package ludo.engine;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+
+ // Streaming writer of GameRecords to a set of rolling binary log files.
+ // Every thread that plays games gets its own Batch, which encodes the records in memory and hands them to the writer
+ // in chunks of about BATCH_SIZE bytes. A single background thread writes the chunks, so the players never wait for the disk
+ // (unless QUEUE_CAPACITY chunks are pending). A new file is started when the current one reaches the maximum size,
+ // always between two chunks, so every file holds whole games.
+ //
+ // Each file starts with MAGIC and VERSION (4 bytes each), followed by the records (see GameRecord).
+ // Files are named prefix-00000.ludolog, prefix-00001.ludolog, ... in the given directory.
+
+
+public class GameLogWriter implements AutoCloseable {
+
+    public static final int MAGIC = 0x4C55444F; //"LUDO"
+    public static final int VERSION = 1;
+    public static final String EXTENSION = ".ludolog";
+    public static final long DEFAULT_FILE_SIZE = 64L << 20;
+    public static final int BATCH_SIZE = 64 << 10;
+    public static final int QUEUE_CAPACITY = 256;
+
+    private static final byte[] END = new byte[0];
+
+    private final File directory;
+    private final String prefix;
+    private final long maxFileSize;
+    private final BlockingQueue<byte[]> queue = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread writer;
+    private volatile IOException error;
+    private DataOutputStream out;
+    private long fileSize;
+    private volatile long bytes; //only modified by the writer thread
+    private volatile int files;
+
+
+     // Initializes a writer of files with the given prefix in the given directory, starting a new file every maxFileSize bytes.
+
+    public GameLogWriter(File directory, String prefix, long maxFileSize) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs())
+            throw new IOException("Can not create directory " + directory);
+        this.directory = directory;
+        this.prefix = prefix;
+        this.maxFileSize = maxFileSize;
+        this.writer = new Thread(this::drain, "game-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+
+     // Creates a batch for one of the threads that play games. A batch must only be used by one thread.
+
+    public Batch newBatch() {
+        return new Batch();
+    }
+
+
+     // Gets the number of files started so far.
+
+    public int getFileCount() {
+        return this.files;
+    }
+
+
+     // Gets the number of bytes written so far, including the file headers.
+
+    public long getBytes() {
+        return this.bytes;
+    }
+
+
+     // Writes the pending chunks and closes the current file. The batches must have been flushed before.
+     // @throws IOException if any of the chunks could not be written
+
+    @Override
+    public void close() throws IOException {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                this.queue.put(END);
+                this.writer.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+        if (this.error != null)
+            throw this.error;
+    }
+
+    // Background thread: writes the chunks in the order they are queued, until the END chunk.
+
+    private void drain() {
+        try {
+            for (byte[] chunk = queue.take(); chunk != END; chunk = queue.take()) {
+                if (this.error != null)
+                    continue;
+                try {
+                    if (this.out == null || this.fileSize >= this.maxFileSize)
+                        roll();
+                    this.out.write(chunk);
+                    this.fileSize += chunk.length;
+                    this.bytes += chunk.length;
+                } catch (IOException e) {
+                    this.error = e;
+                }
+            }
+            if (this.out != null)
+                this.out.close();
+        } catch (IOException e) {
+            if (this.error == null)
+                this.error = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void roll() throws IOException {
+        if (this.out != null)
+            this.out.close();
+        File file = new File(this.directory, String.format("%s-%05d%s", this.prefix, this.files++, EXTENSION));
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), BATCH_SIZE));
+        this.out.writeInt(MAGIC);
+        this.out.writeInt(VERSION);
+        this.fileSize = 8;
+        this.bytes += 8;
+    }
+
+    private void submit(byte[] chunk) throws InterruptedException {
+        this.queue.put(chunk);
+    }
+
+
+     // Records of one thread, encoded in memory and handed to the writer in chunks.
+
+    public final class Batch {
+
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(BATCH_SIZE + BATCH_SIZE / 4);
+        private final DataOutputStream data = new DataOutputStream(buffer);
+
+        private Batch() {
+        }
+
+
+         // Adds a finished round. Blocks only if the writer has QUEUE_CAPACITY chunks pending.
+
+        public void add(GameRecord record) throws InterruptedException {
+            try {
+                record.writeTo(this.data);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e); //not thrown by an in-memory buffer
+            }
+            if (this.buffer.size() >= BATCH_SIZE)
+                flush();
+        }
+
+
+         // Hands the records added so far to the writer.
+
+        public void flush() throws InterruptedException {
+            if (this.buffer.size() > 0) {
+                submit(this.buffer.toByteArray());
+                this.buffer.reset();
+            }
+        }
+    }
+}
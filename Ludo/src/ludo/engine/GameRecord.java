@@ -0,0 +1,172 @@
+package ludo.engine;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import ludo.engine.Autoplay.AutoplayMode;
+
+/**
+ * Compact record of a round of ludo: the seats, their AutoplayModes, the type of board, the seed of the round
+ * and one byte for every dice cast. Each byte holds:
+
+ * bits 0-2: dice result [1-6]
+ * bits 3-4: index of the token moved with that result
+ * bit 5:    set if a token was moved, clear if the player passed the dice
+ * bit 6:    set if the move sent opponent tokens to their home area
+
+ * Encoded as: 1 byte of seats (bits 0-3) and board type (bit 4), 2 bytes with the mode of each seat (4 bits per seat),
+ * the seed (8 bytes), the number of dice casts (varint) and the casts.
+ * A record is reused from one round to the next with clear, so recording does not allocate once its buffer has grown.
+ */
+public final class GameRecord {
+
+    public static final int MOVED = 1 << 5;
+    public static final int CAPTURE = 1 << 6;
+    static final int DICE_MASK = 0x7;
+    static final int TOKEN_SHIFT = 3;
+    private static final int SPECIAL_BIT = 1 << 4;
+    private static final int MODE_BITS = 4;
+    private static final AutoplayMode[] MODES = AutoplayMode.values();
+
+    private int seats; //4 bit mask of the players participating in the round
+    private boolean special;
+    private final AutoplayMode[] modes = new AutoplayMode[4];
+    private long seed;
+    private byte[] casts = new byte[256];
+    private int size;
+
+
+     // Initializes an empty record.
+
+    public GameRecord() {
+        Arrays.fill(modes, GameState.DEFAULT_AUTOMODE);
+    }
+
+
+     // Starts the record of a new round with the seats, modes and board of the given GameState, played with the given seed.
+
+    public void clear(GameState game, long seed) {
+        this.seats = 0;
+        for (int seat = 0; seat < 4; seat++) {
+            Player player = game.getPlayer(seat);
+            if (player.getActive())
+                this.seats |= 1 << seat;
+            this.modes[seat] = player.getAutoMode();
+        }
+        this.special = game.getBoard().getSpecial();
+        this.seed = seed;
+        this.size = 0;
+    }
+
+
+     // Records a dice cast. If the player can move, the token is added to the same byte with move.
+
+    public void roll(int dice) {
+        if (this.size == this.casts.length)
+            this.casts = Arrays.copyOf(this.casts, this.casts.length * 2);
+        this.casts[this.size++] = (byte) dice;
+    }
+
+
+     // Records the token moved with the last dice cast and whether it sent opponent tokens home.
+
+    public void move(int tIndex, boolean capture) {
+        this.casts[this.size - 1] |= (byte) (MOVED | (tIndex << TOKEN_SHIFT) | (capture ? CAPTURE : 0));
+    }
+
+    public int getSeats() {
+        return this.seats;
+    }
+
+    public boolean getSpecial() {
+        return this.special;
+    }
+
+    public AutoplayMode getMode(int seat) {
+        return this.modes[seat];
+    }
+
+    public long getSeed() {
+        return this.seed;
+    }
+
+
+     // Gets the number of dice casts of the round.
+
+    public int size() {
+        return this.size;
+    }
+
+
+     // Gets the byte of the dice cast i (see the class description).
+
+    public int get(int i) {
+        return this.casts[i];
+    }
+
+
+     // Gets the dice result of the byte of a dice cast.
+
+    public static int dice(int cast) {
+        return cast & DICE_MASK;
+    }
+
+
+     // Gets the index of the token moved in the byte of a dice cast.
+
+    public static int token(int cast) {
+        return (cast >>> TOKEN_SHIFT) & 3;
+    }
+
+
+     // Indicates whether the byte of a dice cast has the given flag (MOVED or CAPTURE).
+
+    public static boolean is(int cast, int flag) {
+        return (cast & flag) != 0;
+    }
+
+
+     // Writes the record in its binary encoding.
+
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeByte(this.seats | (this.special ? SPECIAL_BIT : 0));
+        int modeBits = 0;
+        for (int seat = 0; seat < 4; seat++)
+            modeBits |= this.modes[seat].ordinal() << (MODE_BITS * seat);
+        out.writeShort(modeBits);
+        out.writeLong(this.seed);
+        for (int n = this.size; ; n >>>= 7) {
+            if ((n & ~0x7F) == 0) {
+                out.writeByte(n);
+                break;
+            }
+            out.writeByte((n & 0x7F) | 0x80);
+        }
+        out.write(this.casts, 0, this.size);
+    }
+
+
+     // Replaces the contents of this record with the next record read from the given input.
+
+    public void readFrom(DataInput in) throws IOException {
+        int flags = in.readUnsignedByte();
+        this.seats = flags & 0xF;
+        this.special = (flags & SPECIAL_BIT) != 0;
+        int modeBits = in.readUnsignedShort();
+        for (int seat = 0; seat < 4; seat++)
+            this.modes[seat] = MODES[(modeBits >>> (MODE_BITS * seat)) & 0xF];
+        this.seed = in.readLong();
+        int n = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.readUnsignedByte();
+            n |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                break;
+        }
+        if (n > this.casts.length)
+            this.casts = new byte[Integer.highestOneBit(n) << 1];
+        in.readFully(this.casts, 0, n);
+        this.size = n;
+    }
+}
@@ -0,0 +1,243 @@
+package ludo.engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import ludo.engine.Autoplay.AutoplayMode;
+import ludo.engine.Player.Color;
+
+
+ // Headless replay of recorded games (see GameRecord).
+ // A game is rebuilt by driving GameState with the same calls as the GUI and Simulation (rollAndCheckActiveTokens,
+ // checkMoveOrPass and selectAndMove), with a Dice that serves the recorded results and the recorded token choices
+ // instead of the computer players. Every cast is checked against the rules: a recorded pass must have no possible moves,
+ // a recorded move must use an active token and must capture exactly when the record says so.
+ // A replayed game that does not match its record points to a change in the rules, or to a bug.
+ //
+ // Usage: java ludo.engine.GameReplay validate [threads] file|directory...
+ //        java ludo.engine.GameReplay show file game [casts]
+ // validate replays every game of the given log files, one file per thread, and reports the games that do not match.
+ // show prints the position of a game of a file (0 = first) after the given number of dice casts (the whole game by default).
+
+
+public class GameReplay {
+
+    private DiceBuffer rolls = new DiceBuffer(1024);
+
+
+     // Result of the replay of a game.
+
+    public static class Result {
+
+        private final GameState game;
+        private final int casts;
+        private final String error;
+
+        Result(GameState game, int casts, String error) {
+            this.game = game;
+            this.casts = casts;
+            this.error = error;
+        }
+
+
+         // Gets the game in the position reached by the replay.
+
+        public GameState getGame() {
+            return game;
+        }
+
+
+         // Gets the number of dice casts replayed.
+
+        public int getCasts() {
+            return casts;
+        }
+
+
+         // Indicates whether the replay followed the record without breaking any rule.
+
+        public boolean isValid() {
+            return error == null;
+        }
+
+
+         // Gets the description of the first difference between the record and the rules, or null if there is none.
+
+        public String getError() {
+            return error;
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        if (args.length >= 3 && args[0].equals("show")) {
+            GameRecord record = find(new File(args[1]), Integer.parseInt(args[2]));
+            int casts = args.length > 3 ? Integer.parseInt(args[3]) : record.size();
+            Result result = new GameReplay().replay(record, casts);
+            System.out.println(describe(record) + ", " + result.getCasts() + " of " + record.size() + " casts");
+            System.out.println(PackedState.from(result.getGame()));
+            System.out.println(result.isValid() ? "valid" : "invalid: " + result.getError());
+            System.out.print(result.getGame().getGameResults());
+        } else if (args.length >= 2 && args[0].equals("validate")) {
+            int threads = Runtime.getRuntime().availableProcessors();
+            int first = 1;
+            if (args[1].matches("\\d+")) {
+                threads = Integer.parseInt(args[1]);
+                first = 2;
+            }
+            List<File> files = new ArrayList<>();
+            for (String name : Arrays.asList(args).subList(first, args.length))
+                files.addAll(logFiles(new File(name)));
+            System.out.print(validate(files, threads));
+        } else {
+            System.out.println("Usage: java ludo.engine.GameReplay validate [threads] file|directory...");
+            System.out.println("       java ludo.engine.GameReplay show file game [casts]");
+        }
+    }
+
+
+     // Replays a whole recorded game.
+
+    public Result replay(GameRecord record) {
+        return replay(record, record.size());
+    }
+
+
+     // Replays the first casts dice casts of a recorded game, stopping at the first cast that does not follow the rules.
+
+    public Result replay(GameRecord record, int casts) {
+        casts = Math.min(casts, record.size());
+        GameState game = newGame(record);
+        if (casts > rolls.size())
+            rolls = new DiceBuffer(Integer.highestOneBit(casts) << 1);
+        for (int i = 0; i < casts; i++)
+            rolls.set(i, GameRecord.dice(record.get(i)));
+        game.setDice(new Dice(rolls));
+
+        for (int i = 0; i < casts; i++) {
+            int cast = record.get(i);
+            if (!game.getPlaying())
+                return new Result(game, i, "cast " + i + ": the game is over");
+            game.rollAndCheckActiveTokens();
+            if (!GameRecord.is(cast, GameRecord.MOVED)) {
+                if (game.getXTokens() != 0)
+                    return new Result(game, i, "cast " + i + ": passed with tokens to move " + Integer.toBinaryString(game.getXTokens()));
+                game.checkMoveOrPass();
+                continue;
+            }
+            int token = GameRecord.token(cast);
+            if (!game.isXToken(token))
+                return new Result(game, i, "cast " + i + ": token " + token + " of " + game.getPlayer(game.getCurrentPlayer()).getColor() + " can not be moved");
+            game.checkMoveOrPass();
+            int seat = game.getCurrentPlayer();
+            int others = Simulation.tokensOutOfOthers(game, seat);
+            game.selectAndMove(token);
+            if ((Simulation.tokensOutOfOthers(game, seat) < others) != GameRecord.is(cast, GameRecord.CAPTURE))
+                return new Result(game, i + 1, "cast " + i + ": capture does not match the record");
+        }
+        if (casts == record.size() && game.getPlaying() && game.getDice().getDiceRollCount() < Simulation.MAX_ROLLS)
+            return new Result(game, casts, "the record ends before the game is over");
+        return new Result(game, casts, null);
+    }
+
+
+     // Creates the round described by the header of a record: its seats, their AutoplayModes and the board.
+
+    public static GameState newGame(GameRecord record) {
+        List<Color> colors = new ArrayList<>();
+        List<AutoplayMode> modes = new ArrayList<>();
+        for (Color c : Color.values()) {
+            if ((record.getSeats() & (1 << c.ordinal())) != 0)
+                colors.add(c);
+            modes.add(record.getMode(c.ordinal()));
+        }
+        return new GameState(colors, Arrays.asList(true, true, true, true), modes, record.getSpecial());
+    }
+
+
+     // Replays every game of the given log files on a pool of threads (one file per task) and returns a report
+     // with the games of each file, the games that do not match their records and the replay speed.
+
+    public static String validate(List<File> files, int threads) throws InterruptedException, ExecutionException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<String>> reports = new ArrayList<>();
+        long start = System.nanoTime();
+        long[] totals = new long[3]; //games, casts, invalid games
+        try {
+            for (File file : files)
+                reports.add(pool.submit(() -> validate(file, totals)));
+            StringBuilder sb = new StringBuilder();
+            for (Future<String> report : reports)
+                sb.append(report.get());
+            double seconds = (System.nanoTime() - start) / 1e9;
+            synchronized (totals) {
+                sb.append(String.format("%d files, %d games, %d invalid, %.2f s (%.0f games/s, %.0f casts/s)%n",
+                        files.size(), totals[0], totals[2], seconds, totals[0] / seconds, totals[1] / seconds));
+            }
+            return sb.toString();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static String validate(File file, long[] totals) {
+        StringBuilder sb = new StringBuilder();
+        GameReplay replay = new GameReplay();
+        GameRecord record = new GameRecord();
+        long games = 0, casts = 0, invalid = 0;
+        try (GameLogReader reader = new GameLogReader(file)) {
+            while (reader.next(record)) {
+                Result result = replay.replay(record);
+                if (!result.isValid()) {
+                    invalid++;
+                    sb.append(String.format("%s game %d (%s): %s%n", file.getName(), games, describe(record), result.getError()));
+                }
+                games++;
+                casts += record.size();
+            }
+        } catch (IOException e) {
+            sb.append(file.getName()).append(": ").append(e.getMessage()).append(System.lineSeparator());
+        }
+        synchronized (totals) {
+            totals[0] += games;
+            totals[1] += casts;
+            totals[2] += invalid;
+        }
+        return sb.append(String.format("%s: %d games, %d invalid%n", file.getName(), games, invalid)).toString();
+    }
+
+    // Reads the game with the given index of a log file.
+
+    private static GameRecord find(File file, int index) throws IOException {
+        GameRecord record = new GameRecord();
+        try (GameLogReader reader = new GameLogReader(file)) {
+            for (int g = 0; g <= index; g++)
+                if (!reader.next(record))
+                    throw new IOException(file + " has only " + g + " games");
+        }
+        return record;
+    }
+
+    private static String describe(GameRecord record) {
+        StringBuilder sb = new StringBuilder("seed ").append(record.getSeed()).append(record.getSpecial() ? ", special" : ", regular");
+        for (Color c : Color.values())
+            if ((record.getSeats() & (1 << c.ordinal())) != 0)
+                sb.append(", ").append(c.name()).append(' ').append(record.getMode(c.ordinal()));
+        return sb.toString();
+    }
+
+    // Gets the given file, or the log files of the given directory in order.
+
+    private static List<File> logFiles(File file) {
+        if (!file.isDirectory())
+            return Arrays.asList(file);
+        File[] files = file.listFiles((dir, name) -> name.endsWith(GameLogWriter.EXTENSION));
+        Arrays.sort(files);
+        return Arrays.asList(files);
+    }
+}
@@ -1,13 +1,13 @@
-package ludo;
+package ludo.engine;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import ludo.Autoplay.AutoplayMode;
-import ludo.ImgPath.*;
-import static ludo.Player.GOAL;
-import static ludo.Player.OUT_OF_BOARD;
+import ludo.engine.Autoplay.AutoplayMode;
+import ludo.engine.Player.Color;
+import static ludo.engine.Player.GOAL;
+import static ludo.engine.Player.OUT_OF_BOARD;
 
 /**
    Represents the state of each of the elements present in a round of Ludo.
@@ -17,64 +17,70 @@ import static ludo.Player.OUT_OF_BOARD;
  // The Dice
  // The set of Players
  // The controller for the computer player (Autoplay)
- // The Theme for the graphic representation
  // The index of the current player at any given moment
  // If a round of Ludo is being played
  // If the current player should roll the dice or move a token
  // List of indexes of the active players in the round
- // List of the possible moves at any given moment
+ // The possible moves at any given moment (4 bit mask of tokens)
  // List of players that completed the game (all tokens at the goal area)
+ // The occupancy index of the main track shared by all the players, used to resolve captures
+ // The Zobrist hash of the position, kept up to date by the players as their tokens move
+ // A journal of the moves made with makeRoll/makeMove, so they can be taken back with unmake
  // The results of a round
+ //
+ // GameState holds no graphics: the GUI attaches the theme, images and dice animation separately,
+ // so a round can be created and played headless (see Simulation).
  */
 
 public class GameState {
     
     //default game settings:
-    public static final Theme DEFAULT_THEME = Theme.plain;
     public static final boolean DEFAULT_BOARD = true;
     public static final boolean DEFAULT_AUTOPLAYER= false;
     public static final AutoplayMode DEFAULT_AUTOMODE= AutoplayMode.customAI;
-    private static List<ImgPath.Color> DEFAULT_PLAYERS = Arrays.asList(Color.blue, Color.red, Color.yellow, Color.green);
+    private static List<Color> DEFAULT_PLAYERS = Arrays.asList(Color.blue, Color.red, Color.yellow, Color.green);
     
     private Board board;
     private Dice dice;
     private Player[] players;
+    private Occupancy occupancy;
     private Autoplay computerPlayer;
-    private Theme theme;
     private int currentPlayer, turn; //index of current player, count of turns since game 
     private boolean diceRoller, playing, debug; // check if click is dice roller or token selector
-    private ArrayList<Integer> xPlayers, xTokens, winners; //indexes of active players
+    private ArrayList<Integer> xPlayers, winners; //indexes of active players
+    private int xTokens; //mask of the tokens of the current player that can be moved (bit i set for token i)
     private String gameResults;
+    private long[] journal; //two longs per entry, see pushJournal
+    private int journalSize;
+    
+    private static final int NO_TOKEN = 7;
      
     // Initializes an instance of GameState using default game settings. 
     
     public GameState(){
         this.gameResults = "";
         initVars();
-        this.theme = DEFAULT_THEME;
         this.board = new Board(DEFAULT_BOARD);
         createSetOfPlayers(DEFAULT_PLAYERS, DEFAULT_AUTOPLAYER, DEFAULT_AUTOMODE);
     } 
     
     
-    // Initializes an instance of GameState specifying theme, list of players, and type of board.
+    // Initializes an instance of GameState specifying list of players, and type of board.
     // Uses default settings for auto/manual setting and AutoplayMode.
     
-    public GameState(Theme theme, List<ImgPath.Color> plColors, boolean specialBoard){
+    public GameState(List<Color> plColors, boolean specialBoard){
         this.gameResults = "";
         initVars();
-        this.theme = theme;
         this.board = new Board(specialBoard);
         createSetOfPlayers(plColors, DEFAULT_AUTOPLAYER, DEFAULT_AUTOMODE);
     } 
     
     
     // Initializes an instance of GameState specifying each player's auto/manual settings and AutoplayMode.
-    // It also specifies theme, list of players, and type of board.
+    // It also specifies list of players, and type of board.
     
-    public GameState(Theme theme, List<ImgPath.Color> plColors, List<Boolean> auto, List<AutoplayMode> autoMode, boolean specialBoard){
+    public GameState(List<Color> plColors, List<Boolean> auto, List<AutoplayMode> autoMode, boolean specialBoard){
         initVars();
-        this.theme = theme;
         this.board = new Board(specialBoard);
         createSetOfPlayers(plColors, auto, autoMode);
     } 
@@ -89,12 +95,15 @@ public class GameState {
         this.turn = 0;
         this.xPlayers=new ArrayList<>(); 
         this.players = new Player[4];
+        this.occupancy = new Occupancy();
         this.diceRoller=true;
-        this.xTokens=new ArrayList<>();
+        this.xTokens=0;
         this.winners=new ArrayList<>();
         this.computerPlayer= new Autoplay();
         this.gameResults = "";
         this.debug = false;
+        this.journal = new long[64];
+        this.journalSize = 0;
     }
 
     
@@ -136,6 +145,20 @@ public class GameState {
     }
 
     
+     // Gets the controller for the computer-operated players
+     
+    public Autoplay getComputerPlayer() {
+        return this.computerPlayer;
+    }
+    
+    
+     // Sets the controller for the computer-operated players
+     
+    public void setComputerPlayer(Autoplay computerPlayer) {
+        this.computerPlayer = computerPlayer;
+    }
+
+    
      // Gets an array with objects of the class Player, representing each of the players for this round
      
     public Player[] getPlayers() {
@@ -147,6 +170,35 @@ public class GameState {
      
     public void setPlayers(Player[] players) {
         this.players = players;
+        this.rebuildOccupancy();
+    }
+    
+    
+     // Gets the occupancy index of the main track (count of tokens of each player in each tile)
+     
+    public Occupancy getOccupancy() {
+        return this.occupancy;
+    }
+    
+    
+     // Rebuilds the occupancy index and the players' hashes from the position of every token.
+     // Needed only after modifying tokens directly instead of through the Player methods.
+     
+    public void rebuildOccupancy() {
+        this.occupancy.clear();
+        for (Player player: this.players)
+            player.setOccupancy(this.occupancy);
+    }
+    
+    
+     // Gets the Zobrist hash of the position: the tokens of every player, the player whose turn it is and the type of board.
+     // Costs a few XORs, the hashes of the tokens are updated as they move (see Zobrist).
+     
+    public long getHash() {
+        long hash = Zobrist.side(this.currentPlayer) ^ Zobrist.board(this.board.getSpecial());
+        for (Player player: this.players)
+            hash ^= player.getHash();
+        return hash;
     }
     
     
@@ -191,12 +243,28 @@ public class GameState {
     }
     
     
-     // Gets the list of indexes of the active tokens of the current player 
+     // Gets the active tokens of the current player 
      // Tokens that can be moved at any given moment.
+     // @return 4 bit mask, bit i is set if the token with index i can be moved
      
-    public ArrayList<Integer> getXTokens() {
+    public int getXTokens() {
         return this.xTokens;
     }
+    
+    
+     // Indicates whether the token with index tIndex of the current player can be moved.
+     
+    public boolean isXToken(int tIndex) {
+        return (this.xTokens & (1 << tIndex)) != 0;
+    }
+    
+    
+     // Sets the tokens of the current player that can be moved.
+     // Used to restore a position previously saved in a PackedState.
+     
+    void setXTokens(int xTokens) {
+        this.xTokens = xTokens;
+    }
 
     
      // Gets the list of players that completed the game (have all their tokens at the goal area)
@@ -214,29 +282,6 @@ public class GameState {
     }
 
      
-     // Gets the current theme/style used for the GUI
-     
-    public Theme getTheme() {
-        return this.theme;
-    }
-
-    
-     // Sets the game graphics style to the given theme
-   
-    public void setTheme(Theme theme) {
-        this.theme = theme;
-    }
-    
-    
-     // Sets the game graphics style to the given theme name
-     
-    public void setTheme(String theme) {
-        for(Theme t: Theme.values())
-            if(theme.equalsIgnoreCase(t.name()))
-                this.theme = t;
-    }
-
-    
      // Indicates whether it is time for the current player to roll the dice (true) or to select and move a token (false).
      // @return true if the current player should roll the dice, false if the player should move a token
      
@@ -297,18 +342,35 @@ public class GameState {
     public String getGameResults(){
     	return this.gameResults;
     }
+    
+    
+     // Writes the list of winners into the results of the round.
+     
+    void writeGameResults(){
+        this.gameResults = "\nResults:\n\n";
+        for (int i = 0; i < this.getWinners().size(); i++) {
+            this.gameResults += (i + 1)+" place - "+this.getPlayers()[this.getWinners().get(i)].getColor()+" player\n";
+        }
+    }
+    
+    
+     // Sets the number of played turns and whether the current player should roll the dice.
+     // Used to restore a position previously saved in a PackedState.
+     
+    void setTurnState(int turn, boolean diceRoller){
+        this.turn = turn;
+        this.diceRoller = diceRoller;
+    }
 
      // Initializes the attributes of each of the active players for this round.
     
-    private void createSetOfPlayers(List<ImgPath.Color> colors, List<Boolean> auto, List<AutoplayMode> autoMode) {
+    private void createSetOfPlayers(List<Color> colors, List<Boolean> auto, List<AutoplayMode> autoMode) {
         int i = 0;
-        for (ImgPath.Color c : ImgPath.Color.values()) {
+        for (Color c : Color.values()) {
             this.players[i] = new Player(c, auto.get(i), autoMode.get(i));
             this.players[i].setPIndex(i);
+            this.players[i].setOccupancy(this.occupancy);
             //System.out.println("Player "+c.name()+" created.");
-            for(int j=0; j<4; j++){
-                this.players[i].setXY(j);
-            }
             if (colors.contains(c)) {
                 this.players[i].setActive(true);
                 this.xPlayers.add(i);
@@ -319,15 +381,13 @@ public class GameState {
    
      // Initializes the attributes of each of the active players for this round.
      
-    private void createSetOfPlayers(List<ImgPath.Color> colors, boolean auto, AutoplayMode autoMode) {
+    private void createSetOfPlayers(List<Color> colors, boolean auto, AutoplayMode autoMode) {
         int i = 0;
-        for (ImgPath.Color c : ImgPath.Color.values()) {
+        for (Color c : Color.values()) {
             this.players[i] = new Player(c, auto, autoMode);
             this.players[i].setPIndex(i);
+            this.players[i].setOccupancy(this.occupancy);
             //System.out.println("Player "+c.name()+" created.");
-            for(int j=0; j<4; j++){
-                this.players[i].setXY(j);
-            }
             if (colors.contains(c)) {
                 this.players[i].setActive(true);
                 this.xPlayers.add(i);
@@ -366,14 +426,19 @@ public class GameState {
     }    
 
      // Compares the position of a given token with other players' tokens and if equal, sends the opponent's token to its home area
+     // Only the active players that have tokens on that tile according to the occupancy index are checked.
    
-    private void checkOtherTokens(int pIndex, int tIndex) {
+    void checkOtherTokens(int pIndex, int tIndex) {
         int tokenPosition = this.players[pIndex].getToken(tIndex).getPosition();
-        for (int i = 0; i < this.xPlayers.size(); i++) {
-            if (!this.players[pIndex].getColor().equals(players[xPlayers.get(i)].getColor())) {
+        if (tokenPosition == OUT_OF_BOARD)
+            return;
+        int owners = this.occupancy.owners(tokenPosition) & ~(1 << pIndex);
+        for (int i = 0; owners != 0; i++, owners >>>= 1) {
+            if ((owners & 1) != 0 && this.xPlayers.contains(i)) {
                 for (int j = 0; j < 4; j++) {
-                    if (players[xPlayers.get(i)].getToken(j).getPosition() == tokenPosition && players[xPlayers.get(i)].getToken(j).getPosition() != OUT_OF_BOARD && !players[xPlayers.get(i)].getToken(j).getSafe()) {
-                        players[xPlayers.get(i)].outOfBoard(j);
+                    Token token = this.players[i].getToken(j);
+                    if (token.getPosition() == tokenPosition && !token.getFinalTrack() && !token.getSafe()) {
+                        this.players[i].outOfBoard(j);
                     }
                 }
             }
@@ -385,20 +450,25 @@ public class GameState {
     public void rollAndCheckActiveTokens() {
         this.currentPlayer = this.xPlayers.get(this.turn % this.xPlayers.size());
         this.dice.rollDice(this.currentPlayer);
-        this.xTokens.clear();
+        this.checkActiveTokens();
+    }
+    
+    
+     // Updates the list of active tokens of the current player according to the dice result
+     
+    private void checkActiveTokens() {
+        this.xTokens = 0;
 
         if (this.dice.getIsSix()) {
             this.players[currentPlayer].setTurn(true);// flag for throwing the dice again if a token is moved
             for (Token token : this.players[currentPlayer].getTokens()) {
                 if (!(token.getFinalTrack() && token.getPosition() == GOAL)) {
-                    this.xTokens.add(token.getIndex());
+                    this.xTokens |= 1 << token.getIndex();
                 }
             }
         } else {
             this.players[currentPlayer].setTurn(false);
-            for (int index : this.players[currentPlayer].getTokensOut()) {
-                this.xTokens.add(index);
-            }
+            this.xTokens = this.players[currentPlayer].getTokensOut();
         }
     }
     
@@ -406,7 +476,7 @@ public class GameState {
      // If there are no possible moves, the current player passes the dice to the next player 
      
     public void checkMoveOrPass(){
-        if (this.xTokens.size() > 0) {
+        if (this.xTokens != 0) {
             this.diceRoller = false;} 
         else { 
         	//if no tokens to move, pass and let player roll dice
@@ -434,10 +504,7 @@ public class GameState {
             this.removeXPlayers(this.players[currentPlayer].getPIndex());
             if (this.getXPlayers().isEmpty()) {
                 this.playing = false;
-                this.gameResults = "\nResults:\n\n";
-                for (int i = 0; i < this.getWinners().size(); i++) {
-                    this.gameResults += (i + 1)+" place - "+this.getPlayers()[this.getWinners().get(i)].getColor()+" player\n";
-                }
+                this.writeGameResults();
             }
         }
         if (!this.players[currentPlayer].getTurn()) {
@@ -455,4 +522,131 @@ public class GameState {
     public void autoMove() {
         selectAndMove(computerPlayer.selectToken(this));
     }
+    
+    
+     // The player whose turn it is casts the given dice result, and passes the dice if there are no possible moves.
+     // Same as rollAndCheckActiveTokens followed by checkMoveOrPass, without using the Dice's random generator.
+     // The roll can be taken back with unmake.
+     // @param diceResult int number [1-6] representing the result of the dice
+     
+    public void makeRoll(int diceResult) {
+        int seat = this.xPlayers.get(this.turn % this.xPlayers.size());
+        this.pushJournal(seat, NO_TOKEN, 0);
+        this.currentPlayer = seat;
+        this.dice.setHolder(seat);
+        this.dice.setResult(diceResult);
+        this.checkActiveTokens();
+        this.checkMoveOrPass();
+    }
+    
+    
+     // Moves a token of the current player with the current dice result (see selectAndMove).
+     // The move, including captures, star jumps, extra turns and winners, can be taken back with unmake.
+     // @param tokenIndex int number [0-3], must be one of the active tokens (getXTokens)
+     
+    public void makeMove(int tokenIndex) {
+        if (!this.isXToken(tokenIndex))
+            throw new IllegalArgumentException("Token " + tokenIndex + " can not be moved");
+        int seat = this.currentPlayer;
+        int move = MoveTable.get(seat, PackedState.code(seat, this.players[seat].getToken(tokenIndex)), this.dice.getResult());
+        this.pushJournal(seat, tokenIndex, MoveTable.position(move));
+        this.selectAndMove(tokenIndex);
+    }
+    
+    
+     // Gets the number of rolls and moves that can be taken back with unmake.
+     
+    public int getJournalSize() {
+        return this.journalSize / 2;
+    }
+    
+    
+     // Takes back the last roll or move made with makeRoll or makeMove, restoring the exact previous state.
+     
+    public void unmake() {
+        long a = this.journal[--this.journalSize];
+        long b = this.journal[--this.journalSize];
+        int seat = (int) (a >>> 52) & 3;
+        int tIndex = (int) (a >>> 54) & 7;
+        Player player = this.players[seat];
+
+        this.turn = (int) a;
+        this.currentPlayer = (int) (a >>> 32) & 3;
+        this.diceRoller = (a & (1L << 34)) != 0;
+        boolean wasPlaying = (a & (1L << 35)) != 0;
+        if (wasPlaying && !this.playing)
+            this.gameResults = "";
+        this.playing = wasPlaying;
+        this.xTokens = (int) (a >>> 36) & 0xF;
+        this.dice.setResult((int) (a >>> 40) & 7);
+        this.dice.setHolder((int) (a >>> 43) & 3);
+        player.setTurn((a & (1L << 45)) != 0);
+        player.setGoal((int) (a >>> 46) & 7);
+        int winners = (int) (a >>> 49) & 7;
+        while (this.winners.size() > winners)
+            this.winners.remove(this.winners.size() - 1);
+
+        if (tIndex != NO_TOKEN) {
+            int bits = (int) (b >>> 16);
+            player.restore(tIndex, bits & 0x7F, (bits & 0x80) != 0, (bits & 0x100) != 0, (bits & 0x200) != 0);
+            int captureTile = (int) (b >>> 26) & 0x3F;
+            for (int s = 0; s < 4; s++) {
+                int captured = ((int) (b >>> (4 * s)) & 0xF) & ~this.players[s].getTokensOut();
+                if (s == seat || captured == 0)
+                    continue;
+                for (int t = 0; t < 4; t++)
+                    if ((captured & (1 << t)) != 0)
+                        this.players[s].restore(t, captureTile, true, false, false);
+            }
+        }
+        int xPlayers = (int) (b >>> 32) & 0xF;
+        if (xPlayers != this.xPlayersMask()) {
+            this.xPlayers.clear();
+            for (int s = 0; s < 4; s++)
+                if ((xPlayers & (1 << s)) != 0)
+                    this.xPlayers.add(s);
+        }
+    }
+    
+    // Saves the state that a roll or a move of the player with the given seat can modify.
+    // First long: tokens out of every player, the moved token, the tile where captures happen and the active players.
+    // Second long: turn count, current player, flags, active tokens, dice, and the seat's extra turn, goal count and winners.
+    
+    private void pushJournal(int seat, int tIndex, int captureTile) {
+        if (this.journalSize + 2 > this.journal.length)
+            this.journal = Arrays.copyOf(this.journal, this.journal.length * 2);
+        Player player = this.players[seat];
+        long b = 0;
+        for (int s = 0; s < 4; s++)
+            b |= (long) this.players[s].getTokensOut() << (4 * s);
+        if (tIndex != NO_TOKEN) {
+            Token token = player.getToken(tIndex);
+            b |= (long) (token.getPosition() | (token.getOut() ? 0x80 : 0) | (token.getFinalTrack() ? 0x100 : 0) | (token.getSafe() ? 0x200 : 0)) << 16;
+            b |= (long) captureTile << 26;
+        }
+        b |= (long) this.xPlayersMask() << 32;
+        long a = this.turn & 0xFFFFFFFFL;
+        a |= (long) this.currentPlayer << 32;
+        a |= this.diceRoller ? 1L << 34 : 0;
+        a |= this.playing ? 1L << 35 : 0;
+        a |= (long) this.xTokens << 36;
+        a |= (long) this.dice.getResult() << 40;
+        a |= (long) this.dice.getHolder() << 43;
+        a |= player.getTurn() ? 1L << 45 : 0;
+        a |= (long) player.getGoal() << 46;
+        a |= (long) this.winners.size() << 49;
+        a |= (long) seat << 52;
+        a |= (long) tIndex << 54;
+        this.journal[this.journalSize++] = b;
+        this.journal[this.journalSize++] = a;
+    }
+    
+    // Gets the players still in the game as a mask of seats (bit s for seat s).
+
+    int xPlayersMask() {
+        int mask = 0;
+        for (int i = 0; i < this.xPlayers.size(); i++)
+            mask |= 1 << this.xPlayers.get(i);
+        return mask;
+    }
 }
@@ -0,0 +1,379 @@
+package ludo.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import ludo.engine.Autoplay.AutoplayMode;
+import ludo.engine.Player.Color;
+
+
+ // Search of the monteCarlo AutoplayMode.
+ // Every iteration walks down a tree of the positions reached from the current one (a random dice result at the chance nodes,
+ // the move with the best upper confidence bound (UCT) at the decision nodes), adds one new position to the tree and plays
+ // the round on with the rollout policy (the random or customAI mode). A rollout stops when the round is over or after a horizon
+ // of dice casts, where the players still in the round are placed by the progress of their tokens: a round lasts hundreds of
+ // casts, and the short rollouts are both faster and less noisy. The place of every player is added to the positions of
+ // the walk, and each player selects the moves that give it the best places.
+ //
+ // The search uses root parallelism: each worker thread has its own copy of the game and its own tree, and when the time
+ // budget is over the visits of the moves of the root are added up. The most visited move is played.
+ // The copies are played with makeRoll/makeMove and taken back with unmake, so an iteration allocates at most one tree node.
+ //
+ // Usage: java ludo.engine.MonteCarloTreeSearch [millis] [threads] [games] [opponentMode] [policy] [horizon] [regular|special]
+ // Plays games of the monteCarlo mode (yellow) against three players of the opponent mode and reports the search statistics.
+
+
+public class MonteCarloTreeSearch {
+
+    public static final long DEFAULT_MILLIS = 20;
+    public static final AutoplayMode DEFAULT_POLICY = AutoplayMode.customAI;
+    public static final int DEFAULT_HORIZON = 50; //dice casts after which a rollout is stopped and scored by the progress of the tokens
+    private static final double EXPLORATION = 0.7; //weight of the confidence bound, for places scored in [0, 1]
+
+    private static ExecutorService pool;
+
+    private final long budget;
+    private final Stats stats;
+    private final Worker[] workers;
+    private final PackedState state = new PackedState();
+
+
+     // Statistics of the searches, which can be shared by the searches of different games and threads.
+
+    public static class Stats {
+
+        private final LongAdder searches = new LongAdder();
+        private final LongAdder rollouts = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        void add(long rollouts, long nanos) {
+            this.searches.increment();
+            this.rollouts.add(rollouts);
+            this.nanos.add(nanos);
+            this.maxNanos.accumulate(nanos);
+        }
+
+        public long getSearches() {
+            return searches.sum();
+        }
+
+        public long getRollouts() {
+            return rollouts.sum();
+        }
+
+
+         // Gets the number of rollouts played per second of search (by all the workers of a search together).
+
+        public double getRolloutsPerSecond() {
+            return rollouts.sum() * 1e9 / Math.max(nanos.sum(), 1);
+        }
+
+        @Override
+        public String toString() {
+            long s = Math.max(getSearches(), 1);
+            return String.format("%d searches, %.0f rollouts/s, %.0f rollouts/search, %.3f ms/search (max %.3f ms)",
+                    getSearches(), getRolloutsPerSecond(), (double) getRollouts() / s, nanos.sum() / 1e6 / s, maxNanos.get() / 1e6);
+        }
+    }
+
+    // Position of the tree: the visits and the sum of the places of each seat in the rollouts that went through it.
+    // The children are indexed by dice result below a chance node and by token below a decision node.
+
+    private static class Node {
+
+        int visits;
+        final double[] score = new double[4];
+        Node[] children;
+
+        Node child(int i) {
+            return children == null ? null : children[i];
+        }
+
+        Node add(int i) {
+            if (children == null)
+                children = new Node[7];
+            return children[i] = new Node();
+        }
+    }
+
+
+     // Initializes a search with the default time budget, rollout policy and horizon, with one worker per core.
+
+    public MonteCarloTreeSearch(RandomStream random) {
+        this(DEFAULT_POLICY, DEFAULT_HORIZON, DEFAULT_MILLIS * 1000000, Runtime.getRuntime().availableProcessors(), random, new Stats());
+    }
+
+
+     // Initializes a search that plays its rollouts with the given AutoplayMode (random or customAI) for at most horizon
+     // dice casts, searches for budget nanoseconds per decision and runs the given number of workers.
+     // Every worker uses its own stream split from the given one.
+
+    public MonteCarloTreeSearch(AutoplayMode policy, int horizon, long budget, int threads, RandomStream random, Stats stats) {
+        if (policy != AutoplayMode.random && policy != AutoplayMode.customAI)
+            throw new IllegalArgumentException("The rollout policy must be random or customAI: " + policy);
+        if (horizon <= 0)
+            throw new IllegalArgumentException("Horizon must be positive: " + horizon);
+        if (budget <= 0)
+            throw new IllegalArgumentException("Budget must be positive: " + budget);
+        if (threads <= 0)
+            throw new IllegalArgumentException("Threads must be positive: " + threads);
+        this.budget = budget;
+        this.stats = stats;
+        this.workers = new Worker[threads];
+        for (int i = 0; i < threads; i++)
+            this.workers[i] = new Worker(policy, horizon, random.split());
+    }
+
+    public long getBudget() {
+        return budget;
+    }
+
+    public int getThreads() {
+        return workers.length;
+    }
+
+    public Stats getStats() {
+        return stats;
+    }
+
+    public static void main(String[] args) {
+        long millis = args.length > 0 ? Long.parseLong(args[0]) : DEFAULT_MILLIS;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int games = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        AutoplayMode opponent = args.length > 3 ? AutoplayMode.valueOf(args[3]) : AutoplayMode.customAI;
+        AutoplayMode policy = args.length > 4 ? AutoplayMode.valueOf(args[4]) : DEFAULT_POLICY;
+        int horizon = args.length > 5 ? Integer.parseInt(args[5]) : DEFAULT_HORIZON;
+        boolean special = args.length > 6 ? args[6].equalsIgnoreCase("special") : GameState.DEFAULT_BOARD;
+
+        Stats stats = new Stats();
+        RandomStream master = RandomStream.seeded(games);
+        int[] places = new int[4];
+        for (int g = 0; g < games; g++) {
+            List<AutoplayMode> modes = Arrays.asList(AutoplayMode.monteCarlo, opponent, opponent, opponent);
+            GameState game = new GameState(Arrays.asList(Color.values()), Arrays.asList(true, true, true, true), modes, special);
+            game.setDice(new Dice(master.split()));
+            Autoplay computerPlayer = new Autoplay(master.split());
+            computerPlayer.setMonteCarlo(new MonteCarloTreeSearch(policy, horizon, millis * 1000000, threads, master.split(), stats));
+            game.setComputerPlayer(computerPlayer);
+            Simulation.play(game);
+            places[game.getWinners().indexOf(0)]++;
+        }
+        System.out.printf("monteCarlo %d ms, %d threads, %s rollouts of %d casts vs %s, %d games: places %s%n",
+                millis, threads, policy, horizon, opponent, games, Arrays.toString(places));
+        System.out.println(stats);
+    }
+
+
+     // Selects the token of the current player of the game that was visited the most in the time budget.
+     // The game is not modified: the workers search copies of it.
+
+    public int selectToken(GameState game) {
+        int xTokens = game.getXTokens();
+        if (Integer.bitCount(xTokens) <= 1)
+            return Math.max(Integer.numberOfTrailingZeros(xTokens), 0) & 3;
+        long start = System.nanoTime();
+        long deadline = start + budget;
+        state.read(game);
+        for (Worker worker : workers)
+            worker.reset(state);
+
+        //a task that has not started when the caller's own search is over is skipped, as the pool may be busy with other searches
+        List<Future<?>> tasks = new ArrayList<>();
+        AtomicBoolean[] started = new AtomicBoolean[workers.length];
+        for (int i = 1; i < workers.length; i++) {
+            Worker worker = workers[i];
+            AtomicBoolean claim = started[i] = new AtomicBoolean();
+            tasks.add(pool().submit(() -> {
+                if (claim.compareAndSet(false, true))
+                    worker.search(deadline);
+            }));
+        }
+        workers[0].search(deadline);
+        try {
+            for (int i = 1; i < workers.length; i++) {
+                if (started[i].compareAndSet(false, true))
+                    tasks.get(i - 1).cancel(false);
+                else
+                    tasks.get(i - 1).get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Search interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search failed", e.getCause());
+        }
+
+        int best = Integer.numberOfTrailingZeros(xTokens);
+        long bestVisits = -1, rollouts = 0;
+        for (Worker worker : workers)
+            rollouts += worker.root.visits;
+        for (int x = xTokens; x != 0; x &= x - 1) {
+            int t = Integer.numberOfTrailingZeros(x);
+            long visits = 0;
+            for (Worker worker : workers) {
+                Node child = worker.root.child(t);
+                visits += child == null ? 0 : child.visits;
+            }
+            if (visits > bestVisits) {
+                bestVisits = visits;
+                best = t;
+            }
+        }
+        stats.add(rollouts, System.nanoTime() - start);
+        return best;
+    }
+
+    // Daemon threads shared by every search, so the searches of the games of a tournament do not each start their own.
+
+    private static synchronized ExecutorService pool() {
+        if (pool == null)
+            pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+                Thread thread = new Thread(r, "monte-carlo");
+                thread.setDaemon(true);
+                return thread;
+            });
+        return pool;
+    }
+
+    // A worker searches its own copy of the game, with its own tree, random stream and rollout policy.
+
+    private static class Worker {
+
+        private final GameState game;
+        private final Autoplay policy;
+        private final RandomStream random;
+        private final int horizon;
+        private final Node[] path;
+        private final double[] places = new double[4];
+        private Node root;
+
+        Worker(AutoplayMode policy, int horizon, RandomStream random) {
+            this.game = Simulation.newGame(policy, GameState.DEFAULT_BOARD);
+            this.horizon = horizon;
+            this.path = new Node[2 * horizon + 1]; //a roll and a move per cast
+            this.policy = new Autoplay(random.split());
+            this.random = random;
+            this.game.setComputerPlayer(this.policy);
+        }
+
+        // Sets up the copy of the game in the given position, with a new tree.
+
+        void reset(PackedState state) {
+            state.applyTo(game);
+            root = new Node();
+        }
+
+        void search(long deadline) {
+            while (System.nanoTime() < deadline)
+                iterate();
+        }
+
+        // Walks down the tree to a new position, plays a rollout from it and adds its places to the positions of the walk.
+
+        private void iterate() {
+            int mark = game.getJournalSize();
+            Node node = root;
+            int length = 0, casts = 0;
+            path[length++] = node;
+            while (game.getPlaying() && casts < horizon) {
+                int i;
+                if (game.getDiceRoller()) {
+                    i = 1 + random.nextInt(6);
+                    game.makeRoll(i);
+                    casts++;
+                } else {
+                    i = select(node);
+                    game.makeMove(i);
+                }
+                Node child = node.child(i);
+                if (child == null) {
+                    path[length++] = node.add(i);
+                    break;
+                }
+                path[length++] = node = child;
+            }
+            rollout(casts);
+            for (int k = 0; k < length; k++) {
+                Node n = path[k];
+                n.visits++;
+                for (int seat = 0; seat < 4; seat++)
+                    n.score[seat] += places[seat];
+            }
+            while (game.getJournalSize() > mark)
+                game.unmake();
+        }
+
+        // Gets the active token of the current player with the best upper confidence bound, or the first one not tried yet.
+
+        private int select(Node node) {
+            int seat = game.getCurrentPlayer();
+            double log = Math.log(Math.max(node.visits, 1));
+            int best = -1;
+            double bestBound = Double.NEGATIVE_INFINITY;
+            for (int x = game.getXTokens(); x != 0; x &= x - 1) {
+                int t = Integer.numberOfTrailingZeros(x);
+                Node child = node.child(t);
+                if (child == null)
+                    return t;
+                double bound = child.score[seat] / child.visits + EXPLORATION * Math.sqrt(log / child.visits);
+                if (bound > bestBound) {
+                    bestBound = bound;
+                    best = t;
+                }
+            }
+            return best;
+        }
+
+        // Plays the rest of the round with the rollout policy, for at most horizon dice casts from the root,
+        // and scores the place of each seat: 1 for the first place down to 0 for the last one.
+
+        private void rollout(int casts) {
+            while (game.getPlaying() && casts < horizon) {
+                if (game.getDiceRoller()) {
+                    game.makeRoll(1 + random.nextInt(6));
+                    casts++;
+                } else {
+                    int t = policy.selectToken(game);
+                    game.makeMove(game.isXToken(t) ? t : Integer.numberOfTrailingZeros(game.getXTokens()));
+                }
+            }
+            Arrays.fill(places, 0);
+            int players = 0;
+            for (Player player : game.getPlayers())
+                if (player.getActive())
+                    players++;
+            List<Integer> winners = game.getWinners();
+            for (int place = 0; place < winners.size(); place++)
+                places[winners.get(place)] = score(place, players);
+            //the players still in the round take the next places in order of progress, sharing the place of a tie
+            for (int seat : game.getXPlayers()) {
+                int progress = progress(seat), place = winners.size();
+                for (int other : game.getXPlayers())
+                    if (progress(other) > progress)
+                        place++;
+                places[seat] = score(place, players);
+            }
+        }
+
+        // Sum of the progress codes of the tokens of a seat (see PackedState).
+
+        private int progress(int seat) {
+            int progress = 0;
+            for (Token token : game.getPlayer(seat).getTokens())
+                progress += PackedState.code(seat, token);
+            return progress;
+        }
+
+        private static double score(int place, int players) {
+            return players > 1 ? (double) (players - 1 - place) / (players - 1) : 1;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package ludo.engine;
+
+import static ludo.engine.PackedState.AT_GOAL;
+import static ludo.engine.PackedState.FINAL_TRACK;
+import static ludo.engine.PackedState.FINAL_TRACK_ENTRY;
+import static ludo.engine.PackedState.HOME;
+import static ludo.engine.PackedState.MAIN_TRACK;
+import static ludo.engine.Player.GOAL;
+
+/**
+ * Precomputed transitions of a token for every player seat, progress code (see PackedState) and dice result.
+ * Each entry is an int with the following fields:
+
+ * bits 0-5:   progress code of the destination
+ * bits 6-11:  progress code after the star jump of a special board (same as the destination if it is not a star)
+ * bits 12-19: flags describing the move (FROM_HOME, ENTER_FINAL_TRACK, REACH_GOAL, STAR, GLOBE, START_TILE, LAST_STAR)
+ * bits 20-25: absolute position [0-51] of the destination in the main track, or NOT_ON_TRACK
+
+ * A dice result of 0 describes the tile where the token is standing, it is used to check special tiles after a move.
+ */
+public final class MoveTable {
+
+    public static final int SEATS = 4;
+    public static final int CODES = AT_GOAL + 1;
+    public static final int DICE = 7;
+
+    public static final int FROM_HOME = 1 << 12;
+    public static final int ENTER_FINAL_TRACK = 1 << 13;
+    public static final int REACH_GOAL = 1 << 14;
+    public static final int STAR = 1 << 15;
+    public static final int GLOBE = 1 << 16;
+    public static final int START_TILE = 1 << 17;
+    public static final int LAST_STAR = 1 << 18;
+    public static final int NOT_ON_TRACK = 0x3F;
+
+    private static final int[] TABLE = new int[SEATS * CODES * DICE];
+
+    static {
+        for (int seat = 0; seat < SEATS; seat++)
+            for (int code = 0; code < CODES; code++)
+                for (int dice = 0; dice < DICE; dice++)
+                    TABLE[index(seat, code, dice)] = transition(seat, code, dice);
+    }
+
+    private MoveTable() {
+    }
+
+    private static int index(int seat, int code, int dice) {
+        return (seat * CODES + code) * DICE + dice;
+    }
+
+
+     // Gets the transition of a token of the given seat standing at the given progress code with the given dice result.
+
+    public static int get(int seat, int code, int dice) {
+        return TABLE[index(seat, code, dice)];
+    }
+
+
+     // Gets the progress code of the destination of a transition.
+
+    public static int dest(int entry) {
+        return entry & 0x3F;
+    }
+
+
+     // Gets the progress code of the destination after the star jump of a special board.
+
+    public static int jump(int entry) {
+        return (entry >>> 6) & 0x3F;
+    }
+
+
+     // Gets the absolute position of the destination in the main track, or NOT_ON_TRACK.
+
+    public static int position(int entry) {
+        return (entry >>> 20) & 0x3F;
+    }
+
+
+     // Indicates whether the transition has the given flag.
+
+    public static boolean is(int entry, int flag) {
+        return (entry & flag) != 0;
+    }
+
+    // Computes a transition with the same rules as Player.moveSelectedToken and Player.checkSpecial.
+
+    private static int transition(int seat, int code, int dice) {
+        int dest, flags = 0;
+        if (dice == 0) {
+            dest = code;
+        } else if (code == HOME) {
+            dest = MAIN_TRACK;
+            flags |= FROM_HOME;
+        } else if (code >= FINAL_TRACK) {
+            int x = code - FINAL_TRACK + dice;
+            dest = FINAL_TRACK + (x > GOAL ? GOAL - (x - GOAL) : x);
+        } else {
+            int rel = code - MAIN_TRACK + dice;
+            if (rel >= FINAL_TRACK_ENTRY) {
+                dest = FINAL_TRACK + rel - FINAL_TRACK_ENTRY;
+                flags |= ENTER_FINAL_TRACK;
+            } else {
+                dest = MAIN_TRACK + rel;
+            }
+        }
+        if (dest == AT_GOAL && dice > 0 && code != AT_GOAL)
+            flags |= REACH_GOAL;
+
+        int jump = dest, pos = NOT_ON_TRACK;
+        if (PackedState.onMainTrack(dest)) {
+            pos = PackedState.absolutePosition(seat, dest);
+            int tile = Board.tile(seat, pos);
+            if ((tile & Board.STAR) != 0) {
+                flags |= STAR;
+                if ((tile & Board.LAST_STAR) != 0)
+                    flags |= LAST_STAR;
+                jump = PackedState.mainTrackCode(seat, Board.nextStar(pos));
+            } else if ((tile & Board.GLOBE) != 0) {
+                flags |= GLOBE;
+            } else if ((tile & Board.OWN_START) != 0) {
+                flags |= START_TILE;
+            }
+        }
+        return dest | (jump << 6) | flags | (pos << 20);
+    }
+}
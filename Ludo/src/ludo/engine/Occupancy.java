@@ -0,0 +1,83 @@
+package ludo.engine;
+
+import java.util.Arrays;
+import static ludo.engine.PackedState.TRACK_LENGTH;
+
+/**
+ * Index of the tokens standing in each of the 52 tiles of the main track.
+ * Each tile is an int holding a 4 bit token count for each of the 4 players (bits 4*seat to 4*seat+3).
+ * Player keeps it up to date when its tokens start, move, jump to the next star or are sent home,
+ * so GameState can resolve captures by reading a single tile instead of comparing every token.
+ */
+public class Occupancy {
+
+    private static final int SEAT_BITS = 4;
+    private static final int COUNT_MASK = 0xF;
+
+    private final int[] tiles = new int[TRACK_LENGTH];
+
+
+     // Adds a token of the given player to the tile pos of the main track.
+
+    public void add(int seat, int pos) {
+        tiles[pos] += 1 << (seat * SEAT_BITS);
+    }
+
+
+     // Removes a token of the given player from the tile pos of the main track.
+
+    public void remove(int seat, int pos) {
+        tiles[pos] -= 1 << (seat * SEAT_BITS);
+    }
+
+
+     // Removes every token from the board.
+
+    public void clear() {
+        Arrays.fill(tiles, 0);
+    }
+
+
+     // Gets the number of tokens of the given player standing on the tile pos.
+
+    public int count(int seat, int pos) {
+        return (tiles[pos] >>> (seat * SEAT_BITS)) & COUNT_MASK;
+    }
+
+
+     // Gets the number of tokens of every player standing on the tile pos.
+
+    public int total(int pos) {
+        int t = tiles[pos];
+        return (t & COUNT_MASK) + ((t >>> 4) & COUNT_MASK) + ((t >>> 8) & COUNT_MASK) + ((t >>> 12) & COUNT_MASK);
+    }
+
+
+     // Gets a 4 bit mask with the players that have at least one token on the tile pos.
+
+    public int owners(int pos) {
+        int t = tiles[pos];
+        int mask = 0;
+        for (int seat = 0; seat < 4; seat++)
+            if (((t >>> (seat * SEAT_BITS)) & COUNT_MASK) != 0)
+                mask |= 1 << seat;
+        return mask;
+    }
+
+
+     // Counts the tokens of the players in the mask seats standing within the given number of tiles ahead of pos (pos excluded).
+     // A negative range counts the tiles behind pos.
+
+    public int countInRange(int seats, int pos, int range) {
+        int tokens = 0;
+        int step = range > 0 ? 1 : TRACK_LENGTH - 1;
+        int tile = pos;
+        for (int i = 0; i < Math.abs(range); i++) {
+            tile = (tile + step) % TRACK_LENGTH;
+            for (int seat = 0; seat < 4; seat++)
+                if ((seats & (1 << seat)) != 0)
+                    tokens += count(seat, tile);
+        }
+        return tokens;
+    }
+}
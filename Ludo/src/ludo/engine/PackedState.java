@@ -0,0 +1,526 @@
+package ludo.engine;
+
+import java.util.ArrayList;
+import static ludo.engine.Player.GOAL;
+import static ludo.engine.Player.OUT_OF_BOARD;
+import static ludo.engine.Player.START_DISTANCE;
+
+/**
+ * Compact representation of a position in a round of ludo.
+ * The whole position fits in three long values, so it can be copied, compared and hashed without allocating:
+
+ * tokens: 16 tokens x 7 bits (seats 0-1 in the first long, seats 2-3 in the second).
+ *         Each token stores its progress code (6 bits) and its safe flag (1 bit).
+ *         Progress code 0 is the home area, 1-52 the main track relative to the player's start tile (0-51)
+ *         and 53-58 the final track (0-5, where 5 is the goal).
+ * meta:   current player, dice roller flag, playing flag, type of board, active players, players still in the game,
+ *         extra-turn flags, dice result, list of winners and the count of turns.
+
+ * The rule methods (roll, checkMoveOrPass, selectAndMove) follow the same rules as GameState, reading the moves from the MoveTable,
+ * and the position can be read from and written to a GameState.
+ */
+public final class PackedState {
+
+    public static final int HOME = 0;
+    public static final int MAIN_TRACK = 1; //progress code of the start tile
+    public static final int FINAL_TRACK = 53; //progress code of the first tile of the final track
+    public static final int AT_GOAL = FINAL_TRACK + GOAL;
+    public static final int TRACK_LENGTH = 52;
+    public static final int FINAL_TRACK_ENTRY = 51; //relative position from which a token enters the final track
+
+    static final int TOKEN_BITS = 7;
+    static final int CODE_MASK = 0x3F;
+    static final int SAFE_BIT = 0x40;
+
+    //bit layout of the meta long
+    static final int CURRENT_SHIFT = 0;
+    static final long DICE_ROLLER_BIT = 1L << 2;
+    static final long PLAYING_BIT = 1L << 3;
+    static final long SPECIAL_BIT = 1L << 4;
+    static final int ACTIVE_SHIFT = 8;
+    static final int XPLAYERS_SHIFT = 12;
+    static final int EXTRA_TURN_SHIFT = 16;
+    static final int DICE_SHIFT = 20;
+    static final int WINNER_COUNT_SHIFT = 24;
+    static final int WINNERS_SHIFT = 27;
+    static final int TURN_SHIFT = 36;
+
+    private long lo, hi, meta;
+
+
+     // Initializes an empty position: all tokens at home, no active players.
+
+    public PackedState() {
+    }
+
+
+     // Initializes a copy of the given position.
+
+    public PackedState(PackedState other) {
+        copyFrom(other);
+    }
+
+
+     // Initializes a position from its three long values.
+
+    public PackedState(long lo, long hi, long meta) {
+        this.lo = lo;
+        this.hi = hi;
+        this.meta = meta;
+    }
+
+
+     // Copies the given position into this object without allocating.
+
+    public void copyFrom(PackedState other) {
+        this.lo = other.lo;
+        this.hi = other.hi;
+        this.meta = other.meta;
+    }
+
+    public long getLo() {
+        return lo;
+    }
+
+    public long getHi() {
+        return hi;
+    }
+
+    public long getMeta() {
+        return meta;
+    }
+
+    // ------------------------------------------------------------------ token fields
+
+
+     // Gets the 7 bits (progress code and safe flag) of a token.
+
+    public int token(int seat, int tIndex) {
+        int shift = ((seat & 1) * 4 + tIndex) * TOKEN_BITS;
+        long word = seat < 2 ? lo : hi;
+        return (int) (word >>> shift) & (CODE_MASK | SAFE_BIT);
+    }
+
+    private void setToken(int seat, int tIndex, int bits) {
+        int shift = ((seat & 1) * 4 + tIndex) * TOKEN_BITS;
+        long clear = ~(0x7FL << shift);
+        long value = ((long) bits & 0x7F) << shift;
+        if (seat < 2)
+            lo = (lo & clear) | value;
+        else
+            hi = (hi & clear) | value;
+    }
+
+
+     // Gets the progress code of a token [0-58].
+
+    public int getCode(int seat, int tIndex) {
+        return token(seat, tIndex) & CODE_MASK;
+    }
+
+
+     // Sets the progress code of a token, keeping its safe flag.
+
+    public void setCode(int seat, int tIndex, int code) {
+        setToken(seat, tIndex, (token(seat, tIndex) & SAFE_BIT) | code);
+    }
+
+
+     // Indicates whether a token is safe and can not be sent home by other tokens.
+
+    public boolean getSafe(int seat, int tIndex) {
+        return (token(seat, tIndex) & SAFE_BIT) != 0;
+    }
+
+
+     // Sets a token to safe/not safe mode.
+
+    public void setSafe(int seat, int tIndex, boolean safe) {
+        int bits = token(seat, tIndex);
+        setToken(seat, tIndex, safe ? bits | SAFE_BIT : bits & CODE_MASK);
+    }
+
+
+     // Indicates whether the progress code is a tile of the main track.
+
+    public static boolean onMainTrack(int code) {
+        return code >= MAIN_TRACK && code < FINAL_TRACK;
+    }
+
+
+     // Gets the absolute position [0-51] in the board of a token standing in the main track.
+
+    public static int absolutePosition(int seat, int code) {
+        return (code - MAIN_TRACK + seat * START_DISTANCE) % TRACK_LENGTH;
+    }
+
+
+     // Gets the progress code of a token of the given seat standing at the absolute position pos of the main track.
+
+    public static int mainTrackCode(int seat, int pos) {
+        return MAIN_TRACK + (TRACK_LENGTH + pos - seat * START_DISTANCE) % TRACK_LENGTH;
+    }
+
+
+     // Gets the progress code of a Token of the player with the given seat.
+
+    public static int code(int seat, Token token) {
+        if (token.getPosition() == OUT_OF_BOARD)
+            return HOME;
+        if (token.getFinalTrack())
+            return FINAL_TRACK + token.getPosition();
+        return mainTrackCode(seat, token.getPosition());
+    }
+
+
+     // Updates a Token of the player with the given seat according to the given progress code.
+
+    public static void decode(int seat, int code, Token token) {
+        if (code == HOME) {
+            token.setPosition(OUT_OF_BOARD);
+            token.setOut(false);
+            token.setFinalTrack(false);
+        } else if (code >= FINAL_TRACK) {
+            token.setPosition(code - FINAL_TRACK);
+            token.setOut(code != AT_GOAL);
+            token.setFinalTrack(true);
+        } else {
+            token.setPosition(absolutePosition(seat, code));
+            token.setOut(true);
+            token.setFinalTrack(false);
+        }
+    }
+
+    // ------------------------------------------------------------------ meta fields
+
+    private int field(int shift, int bits) {
+        return (int) (meta >>> shift) & ((1 << bits) - 1);
+    }
+
+    private void setField(int shift, int bits, long value) {
+        long mask = ((1L << bits) - 1) << shift;
+        meta = (meta & ~mask) | ((value << shift) & mask);
+    }
+
+    private boolean flag(long bit) {
+        return (meta & bit) != 0;
+    }
+
+    private void setFlag(long bit, boolean value) {
+        meta = value ? meta | bit : meta & ~bit;
+    }
+
+    public int getCurrentPlayer() {
+        return field(CURRENT_SHIFT, 2);
+    }
+
+    public boolean getDiceRoller() {
+        return flag(DICE_ROLLER_BIT);
+    }
+
+    public boolean getPlaying() {
+        return flag(PLAYING_BIT);
+    }
+
+    public boolean getSpecial() {
+        return flag(SPECIAL_BIT);
+    }
+
+    public void setSpecial(boolean special) {
+        setFlag(SPECIAL_BIT, special);
+    }
+
+
+     // Gets a 4 bit mask with the players participating in the round.
+
+    public int getActiveMask() {
+        return field(ACTIVE_SHIFT, 4);
+    }
+
+
+     // Gets a 4 bit mask with the players that have not completed the game yet (GameState's list of active players).
+
+    public int getXPlayersMask() {
+        return field(XPLAYERS_SHIFT, 4);
+    }
+
+
+     // Indicates whether the player with the given seat throws the dice again after moving a token.
+
+    public boolean getExtraTurn(int seat) {
+        return (field(EXTRA_TURN_SHIFT, 4) & (1 << seat)) != 0;
+    }
+
+    private void setExtraTurn(int seat, boolean turn) {
+        int mask = field(EXTRA_TURN_SHIFT, 4);
+        setField(EXTRA_TURN_SHIFT, 4, turn ? mask | (1 << seat) : mask & ~(1 << seat));
+    }
+
+    public int getDice() {
+        return field(DICE_SHIFT, 3);
+    }
+
+    public int getTurnCount() {
+        return (int) (meta >>> TURN_SHIFT);
+    }
+
+    private void setTurnCount(int turn) {
+        setField(TURN_SHIFT, 64 - TURN_SHIFT, turn);
+    }
+
+    public int getWinnerCount() {
+        return field(WINNER_COUNT_SHIFT, 3);
+    }
+
+
+     // Gets the seat of the player that finished the game in the given place (0 = first).
+
+    public int getWinner(int place) {
+        return field(WINNERS_SHIFT + 2 * place, 2);
+    }
+
+    private void addWinner(int seat) {
+        int count = getWinnerCount();
+        setField(WINNERS_SHIFT + 2 * count, 2, seat);
+        setField(WINNER_COUNT_SHIFT, 3, count + 1);
+    }
+
+
+     // Gets the number of tokens of a player that have reached the goal.
+
+    public int getGoal(int seat) {
+        int goal = 0;
+        for (int t = 0; t < 4; t++)
+            if (getCode(seat, t) == AT_GOAL)
+                goal++;
+        return goal;
+    }
+
+
+     // Gets the index at position k of the ascending list of players (or tokens) given as a 4 bit mask.
+
+    static int nthBit(int mask, int k) {
+        for (int i = 0; i < 4; i++) {
+            if ((mask & (1 << i)) != 0) {
+                if (k == 0)
+                    return i;
+                k--;
+            }
+        }
+        return -1;
+    }
+
+    private int seatForTurn() {
+        int xPlayers = getXPlayersMask();
+        return nthBit(xPlayers, getTurnCount() % Integer.bitCount(xPlayers));
+    }
+
+    // ------------------------------------------------------------------ rules
+
+
+     // Gets a 4 bit mask with the tokens of the current player that can be moved with the current dice result.
+     // With a six every token that is not at the goal can be moved, otherwise only the tokens out of the home area.
+
+    public int legalMoves() {
+        int seat = getCurrentPlayer();
+        boolean six = getDice() == 6;
+        int mask = 0;
+        for (int t = 0; t < 4; t++) {
+            int code = getCode(seat, t);
+            if (code != AT_GOAL && (six || code != HOME))
+                mask |= 1 << t;
+        }
+        return mask;
+    }
+
+
+     // The current player rolls the given dice result (see GameState.rollAndCheckActiveTokens).
+
+    public void roll(int dice) {
+        int seat = seatForTurn();
+        setField(CURRENT_SHIFT, 2, seat);
+        setField(DICE_SHIFT, 3, dice);
+        setExtraTurn(seat, dice == 6);
+    }
+
+
+     // If there are no possible moves, the current player passes the dice to the next player (see GameState.checkMoveOrPass).
+
+    public void checkMoveOrPass() {
+        if (legalMoves() != 0)
+            setFlag(DICE_ROLLER_BIT, false);
+        else
+            setTurnCount(getTurnCount() + 1);
+        setField(CURRENT_SHIFT, 2, seatForTurn());
+    }
+
+
+     // Moves the given token of the current player with the current dice result (see GameState.selectAndMove).
+     // Tokens at the goal are ignored.
+
+    public void selectAndMove(int tIndex) {
+        int seat = getCurrentPlayer();
+        int dice = getDice();
+        int code = getCode(seat, tIndex);
+        if (code == AT_GOAL)
+            return;
+        int move = MoveTable.get(seat, code, dice);
+        int next = MoveTable.dest(move);
+        if (MoveTable.is(move, MoveTable.FROM_HOME))
+            setExtraTurn(seat, false);
+        setCode(seat, tIndex, next);
+        if (next < FINAL_TRACK) {
+            sendOpponentsHome(seat, MoveTable.position(move));
+            if (getSpecial())
+                checkSpecial(seat, tIndex, move);
+        }
+        if (getGoal(seat) == 4) {
+            addWinner(seat);
+            int xPlayers = getXPlayersMask() & ~(1 << seat);
+            setField(XPLAYERS_SHIFT, 4, xPlayers);
+            if (xPlayers == 0)
+                setFlag(PLAYING_BIT, false);
+        }
+        if (!getExtraTurn(seat))
+            setTurnCount(getTurnCount() + 1);
+        setFlag(DICE_ROLLER_BIT, true);
+        if (getPlaying())
+            setField(CURRENT_SHIFT, 2, seatForTurn());
+    }
+
+    private void sendOpponentsHome(int seat, int pos) {
+        int xPlayers = getXPlayersMask();
+        for (int s = 0; s < 4; s++) {
+            if (s == seat || (xPlayers & (1 << s)) == 0)
+                continue;
+            for (int t = 0; t < 4; t++) {
+                int bits = token(s, t);
+                int code = bits & CODE_MASK;
+                if (onMainTrack(code) && (bits & SAFE_BIT) == 0 && absolutePosition(s, code) == pos)
+                    setCode(s, t, HOME);
+            }
+        }
+    }
+
+    private void checkSpecial(int seat, int tIndex, int move) {
+        setSafe(seat, tIndex, false);
+        if (MoveTable.is(move, MoveTable.STAR))
+            setCode(seat, tIndex, MoveTable.jump(move));
+        else if (MoveTable.is(move, MoveTable.GLOBE))
+            setExtraTurn(seat, true);
+        else if (MoveTable.is(move, MoveTable.START_TILE))
+            setSafe(seat, tIndex, true);
+    }
+
+    // ------------------------------------------------------------------ GameState round trip
+
+
+     // Creates a PackedState with the position of the given GameState.
+
+    public static PackedState from(GameState game) {
+        PackedState state = new PackedState();
+        state.read(game);
+        return state;
+    }
+
+
+     // Stores the position of the given GameState in this object.
+
+    public void read(GameState game) {
+        lo = 0;
+        hi = 0;
+        meta = 0;
+        int active = 0, xPlayers = 0;
+        for (int seat = 0; seat < 4; seat++) {
+            Player player = game.getPlayer(seat);
+            for (int t = 0; t < 4; t++) {
+                Token token = player.getToken(t);
+                setToken(seat, t, code(seat, token) | (token.getSafe() ? SAFE_BIT : 0));
+            }
+            if (player.getActive())
+                active |= 1 << seat;
+            setExtraTurn(seat, player.getTurn());
+        }
+        for (int seat : game.getXPlayers())
+            xPlayers |= 1 << seat;
+        setField(ACTIVE_SHIFT, 4, active);
+        setField(XPLAYERS_SHIFT, 4, xPlayers);
+        setField(CURRENT_SHIFT, 2, game.getCurrentPlayer());
+        setFlag(DICE_ROLLER_BIT, game.getDiceRoller());
+        setFlag(PLAYING_BIT, game.getPlaying());
+        setFlag(SPECIAL_BIT, game.getBoard().getSpecial());
+        setField(DICE_SHIFT, 3, game.getDice().getResult());
+        for (int seat : game.getWinners())
+            addWinner(seat);
+        setTurnCount(game.getTurnCount());
+    }
+
+
+     // Writes this position into the given GameState, reusing its Player and Token objects.
+     // The players' auto/manual settings and AutoplayMode are kept.
+
+    public void applyTo(GameState game) {
+        for (int seat = 0; seat < 4; seat++) {
+            Player player = game.getPlayer(seat);
+            int tokensOut = 0;
+            for (int t = 0; t < 4; t++) {
+                Token token = player.getToken(t);
+                int bits = token(seat, t);
+                decode(seat, bits & CODE_MASK, token);
+                token.setSafe((bits & SAFE_BIT) != 0);
+                if (token.getOut())
+                    tokensOut |= 1 << t;
+            }
+            player.setTokensOut(tokensOut);
+            player.setGoal(getGoal(seat));
+            player.setActive((getActiveMask() & (1 << seat)) != 0);
+            player.setTurn(getExtraTurn(seat));
+        }
+        ArrayList<Integer> xPlayers = game.getXPlayers();
+        xPlayers.clear();
+        for (int seat = 0; seat < 4; seat++)
+            if ((getXPlayersMask() & (1 << seat)) != 0)
+                xPlayers.add(seat);
+        ArrayList<Integer> winners = game.getWinners();
+        winners.clear();
+        for (int i = 0; i < getWinnerCount(); i++)
+            winners.add(getWinner(i));
+        game.setCurrentPlayer(getCurrentPlayer());
+        game.setTurnState(getTurnCount(), getDiceRoller());
+        game.setPlaying(getPlaying());
+        game.getBoard().setSpecial(getSpecial());
+        game.getDice().setResult(getDice());
+        game.getDice().setHolder(getCurrentPlayer());
+        game.setXTokens(getDiceRoller() ? 0 : legalMoves());
+        if (!getPlaying())
+            game.writeGameResults();
+        game.rebuildOccupancy();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof PackedState))
+            return false;
+        PackedState other = (PackedState) o;
+        return lo == other.lo && hi == other.hi && meta == other.meta;
+    }
+
+    @Override
+    public int hashCode() {
+        long h = lo * 0x9E3779B97F4A7C15L ^ hi * 0xC2B2AE3D27D4EB4FL ^ meta * 0x165667B19E3779F9L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int seat = 0; seat < 4; seat++) {
+            sb.append(seat).append(':');
+            for (int t = 0; t < 4; t++)
+                sb.append(' ').append(getCode(seat, t)).append(getSafe(seat, t) ? "s" : "");
+            sb.append(seat < 3 ? " | " : "");
+        }
+        return sb.append(" | current ").append(getCurrentPlayer()).append(" dice ").append(getDice())
+                 .append(" turn ").append(getTurnCount()).toString();
+    }
+}
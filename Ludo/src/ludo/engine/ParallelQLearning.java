@@ -0,0 +1,133 @@
+package ludo.engine;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import static ludo.engine.QLearning.BOARDLENGTH;
+
+
+ // Multi-threaded training of the qTable of the qLearning mode.
+ // Every thread trains a table of its own, with its own random stream split from the master stream, for a round of
+ // sync iterations; then the tables of the threads are averaged into the shared QLearning.QTable, and every thread
+ // starts the next round from the average. The threads never write the same memory during a round, so they do not
+ // slow each other down, and the result only depends on the seed and the number of threads.
+ //
+ // Usage: java ludo.engine.ParallelQLearning [iterations] [threads] [seed]
+ // Trains the QLearning.QTable and writes it to the same files as QLearning.learn.
+
+
+public class ParallelQLearning {
+
+    public static final int DEFAULT_SYNC = 1 << 20; //iterations of each thread between two merges
+
+    private final int threads;
+    private final int sync;
+    private final QLearning[] workers;
+    private final double[][][] tables;
+    private long iterations;
+    private long nanos;
+
+
+     // Initializes a trainer with the given number of threads, which merge their tables every sync iterations.
+
+    public ParallelQLearning(int threads, int sync, RandomStream random) {
+        if (threads <= 0)
+            throw new IllegalArgumentException("Threads must be positive: " + threads);
+        if (sync <= 0)
+            throw new IllegalArgumentException("Sync must be positive: " + sync);
+        this.threads = threads;
+        this.sync = sync;
+        this.workers = new QLearning[threads];
+        this.tables = new double[threads][BOARDLENGTH][6];
+        for (int t = 0; t < threads; t++)
+            this.workers[t] = new QLearning(random.split(), tables[t]);
+    }
+
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+        long iterations = args.length > 0 ? Long.parseLong(args[0]) : QLearning.ITERATIONS;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        RandomStream random = args.length > 2 ? RandomStream.seeded(Long.parseLong(args[2])) : RandomStream.create();
+
+        ParallelQLearning trainer = new ParallelQLearning(threads, DEFAULT_SYNC, random);
+        trainer.train(iterations);
+        System.out.printf("%d iterations on %d threads in %.2f s (%.0f iterations/s)%n",
+                trainer.getIterations(), threads, trainer.getNanos() / 1e9, trainer.getIterationsPerSecond());
+        QLearning.printQTable(QLearning.QTable);
+        try {
+            QLearning.writeTable(trainer.getIterations());
+            QLearning.writeQTable();
+        } catch (IOException ex) {
+            System.err.println(ex.getMessage());
+        }
+    }
+
+
+     // Trains QLearning.QTable for the given number of iterations in total, divided between the threads.
+
+    public void train(long iterations) throws InterruptedException, ExecutionException {
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            long left = iterations;
+            while (left > 0) {
+                long round = Math.min(left, (long) sync * threads);
+                List<Callable<Void>> tasks = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    QLearning worker = workers[t];
+                    copy(QLearning.QTable, tables[t]);
+                    int share = (int) (round / threads + (t < round % threads ? 1 : 0));
+                    tasks.add(() -> {
+                        worker.train(share);
+                        return null;
+                    });
+                }
+                for (Future<Void> task : pool.invokeAll(tasks))
+                    task.get();
+                merge();
+                left -= round;
+            }
+        } finally {
+            pool.shutdown();
+        }
+        this.iterations += iterations;
+        this.nanos += System.nanoTime() - start;
+    }
+
+    // Averages the tables of the threads into QLearning.QTable.
+
+    private void merge() {
+        for (int i = 0; i < BOARDLENGTH; i++) {
+            for (int j = 0; j < 6; j++) {
+                double sum = 0;
+                for (double[][] table : tables)
+                    sum += table[i][j];
+                QLearning.QTable[i][j] = sum / threads;
+            }
+        }
+    }
+
+    private static void copy(double[][] from, double[][] to) {
+        for (int i = 0; i < from.length; i++)
+            System.arraycopy(from[i], 0, to[i], 0, from[i].length);
+    }
+
+
+     // Gets the number of iterations trained by all the threads together.
+
+    public long getIterations() {
+        return iterations;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    public double getIterationsPerSecond() {
+        return iterations * 1e9 / Math.max(nanos, 1);
+    }
+}
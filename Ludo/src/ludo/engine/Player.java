@@ -0,0 +1,361 @@
+package ludo.engine;
+
+import ludo.engine.Autoplay.AutoplayMode;
+import static ludo.engine.GameState.DEFAULT_AUTOMODE;
+import static ludo.engine.GameState.DEFAULT_AUTOPLAYER;
+import static ludo.engine.MoveTable.ENTER_FINAL_TRACK;
+import static ludo.engine.MoveTable.FROM_HOME;
+import static ludo.engine.MoveTable.GLOBE;
+import static ludo.engine.MoveTable.STAR;
+import static ludo.engine.MoveTable.START_TILE;
+import static ludo.engine.PackedState.FINAL_TRACK;
+
+/**
+ * Represents one of the 4 possible players in a ludo round.
+ * This object contains the following information:
+ 
+ * The player's color
+ * The player's index in the array of players from the GameState object
+ * Whether the player is active in the current round
+ * Whether the player is computer-operated or human
+ * The player's set of tokens
+ * The list of tokens that are currently out of the home area
+ * Whether it is the player's turn to play at any given moment
+ * The occupancy index of the main track, updated every time one of its tokens enters, moves or leaves a tile
+ * The Zobrist hash of its tokens, updated every time one of them changes
+*/
+
+public class Player {
+    
+    
+     // The four possible player colors
+     
+    public enum Color {yellow, red, green, blue};
+    
+    public static final int OUT_OF_BOARD = 60; //position of token out of the track
+    public static final int START_DISTANCE = 13;
+    public static final int GOAL = 5;
+
+    private int goal, pIndex; //goal: how many tokens have reached the goal, pNumber: index of the player when array of players is created
+    private int tokensOut; //mask of the tokens currently in the board (bit i set for token i)
+    private Color color;
+    private Token[] tokens; //stores the position of each token in the board
+    private boolean active, turn, auto;
+    private AutoplayMode autoMode;
+    private Occupancy occupancy;
+    private long hash; //Zobrist hash of the tokens (see Zobrist)
+    
+    
+     // Initializes an instance of Player given its color.
+     
+    public Player (Color color) {
+        initVars();
+        this.color = color;
+        this.auto = DEFAULT_AUTOPLAYER;
+        this.autoMode = DEFAULT_AUTOMODE;
+    }
+    
+    
+     // Initializes an instance of Player given its color, whether it is a human or computer player, and the type of auto controller.
+     
+    public Player(Color color, boolean auto, AutoplayMode autoMode) {
+        initVars();
+        this.color = color;
+        this.auto = auto;
+        this.autoMode = autoMode;
+    }
+    
+    
+    // Initializes common variables to all Player constructors.
+    
+    private void initVars(){
+        this.goal = 0;
+        this.turn = false;
+        this.active = false;
+        this.tokensOut = 0;
+        this.tokens = new Token[4];
+        for (int i = 0; i < 4; i++) {
+            this.tokens[i]= new Token(i);
+        }
+        this.pIndex = 0;
+        this.occupancy = new Occupancy();
+        this.hash = 0;
+    }
+    
+    
+     // Restarts the attributes of each of the player's tokens and sets the controller for the computer player to the default setting.
+     
+    public void reset(){
+        this.tokensOut = 0;
+        for (int i = 0; i < 4; i++) {
+            this.leaveTile(i);
+            this.tokens[i]= new Token(i);
+        }
+        this.autoMode = DEFAULT_AUTOMODE;
+    }
+
+    
+    // Gets the player's color.
+    
+    public String getColor() {
+        return this.color.name();
+    }
+        
+     
+     // Sets the player's color attribute to a given color.
+     
+    public void setColor(String color) {
+        for (Color c : Color.values()){
+            if(color.equalsIgnoreCase(c.name()))
+            this.color = c;
+        }
+    }    
+    
+    
+     // Gets the type of controller for the computer player.
+     
+    public AutoplayMode getAutoMode(){
+        return this.autoMode;
+    }
+
+     // Gets the number of tokens that the player has in its goal area.
+     
+    public int getGoal() {
+        return this.goal;
+    }
+
+    
+     // Simulates a given number of tokens in the player's goal area.
+     // This method is meant to be used for testing/debugging purposes.
+     
+    public void setGoal(int goal) {
+        this.goal = goal;
+    }
+
+    
+     // Gets the index of the player in the players array from the GameState object.
+     // @return int number [0-3] representing the index of the player in the players array
+     
+    public int getPIndex() {
+        return this.pIndex;
+    }
+
+    
+     // Sets the index number of the player in the players array from the GameState object.
+     
+    public void setPIndex(int index) {
+        this.pIndex = index;
+    }
+
+     // Indicates whether it is the player's turn to play at any given moment.
+     
+    public boolean getTurn() {
+        return this.turn;
+    }
+
+    
+     // Sets the player as current player if the parameter turn is true.
+     
+    public void setTurn(boolean turn) {
+        this.turn = turn;
+    }
+
+     // Indicates whether the player is computer-operated or human.
+     
+    public boolean getAuto() {
+        return this.auto;
+    }
+
+     // Sets the player operation as automatic or manual.
+     
+    public void setAuto(boolean auto) {
+        this.auto = auto;
+    }
+    
+     // Indicates whether the player is participating in the current round of ludo.
+     
+    public boolean getActive() {
+        return this.active;
+    }
+
+    
+     // Sets the player to active or inactive in the game.
+     
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+
+     // Gets the player's tokens that are currently out of the home area.
+     // @return 4 bit mask, bit i is set if the token with index i is out of the home area
+     
+    public int getTokensOut() {
+        return this.tokensOut;
+    }
+    
+    
+     // Indicates whether the token with index tIndex is out of the home area.
+     
+    public boolean isOut(int tIndex) {
+        return (this.tokensOut & (1 << tIndex)) != 0;
+    }
+
+     // Simulates a set of tokens out of its home area given as a 4 bit mask.
+     
+    public void setTokensOut(int tokensOut) {
+        this.tokensOut = tokensOut;
+    }
+
+     // Gets the token of index i in the array tokens.
+     // @param i int number [0-3] representing the index of the token in the tokens array
+     
+    public Token getToken(int i) {
+        return this.tokens[i];
+    }
+    
+    // Gets the player's set of tokens.
+    
+    public Token[] getTokens() {
+        return this.tokens;
+    }
+
+     // Places the given token at the i position of the tokens array
+     
+    public void setToken(Token token, int i) {
+        this.tokens[i] = token;
+    }
+    
+    
+     // Gets the occupancy index of the main track this player's tokens are recorded in.
+     
+    public Occupancy getOccupancy() {
+        return this.occupancy;
+    }
+    
+    
+     // Records this player's tokens in the given occupancy index (shared by all the players of a GameState).
+     // Also recomputes the hash of the tokens, needed after modifying them directly instead of through the Player methods.
+     
+    public void setOccupancy(Occupancy occupancy) {
+        this.occupancy = occupancy;
+        this.hash = 0;
+        for (int i = 0; i < 4; i++)
+            this.enterTile(i);
+    }
+    
+    // Puts a token back in a previous state (see GameState.unmake), keeping the tokens out and the occupancy index up to date.
+    
+    void restore(int tIndex, int position, boolean out, boolean finalTrack, boolean safe) {
+        Token token = this.tokens[tIndex];
+        this.leaveTile(tIndex);
+        token.setPosition(position);
+        token.setOut(out);
+        token.setFinalTrack(finalTrack);
+        token.setSafe(safe);
+        this.tokensOut = out ? this.tokensOut | (1 << tIndex) : this.tokensOut & ~(1 << tIndex);
+        this.enterTile(tIndex);
+    }
+    
+     // Gets the Zobrist hash of the player's tokens (see Zobrist).
+     
+    public long getHash() {
+        return this.hash;
+    }
+    
+    // Removes a token from the hash, and from the occupancy index if it is standing in the main track.
+    // Every change of a token is made between leaveTile and enterTile.
+    
+    private void leaveTile(int tIndex) {
+        Token token = this.tokens[tIndex];
+        this.hash ^= Zobrist.token(this.pIndex, token);
+        if (!token.getFinalTrack() && token.getPosition() != OUT_OF_BOARD)
+            this.occupancy.remove(this.pIndex, token.getPosition());
+    }
+    
+    // Adds a token to the hash, and to the occupancy index if it is standing in the main track.
+    
+    private void enterTile(int tIndex) {
+        Token token = this.tokens[tIndex];
+        this.hash ^= Zobrist.token(this.pIndex, token);
+        if (!token.getFinalTrack() && token.getPosition() != OUT_OF_BOARD)
+            this.occupancy.add(this.pIndex, token.getPosition());
+    }
+
+    private void checkGoal(int tIndex) {
+        if (this.getToken(tIndex).getFinalTrack() && this.getToken(tIndex).getPosition() == GOAL) {
+            this.goal++;
+            this.tokensOut &= ~(1 << tIndex);
+            this.tokens[tIndex].setOut(false);
+        }
+    }
+    
+     // Sends a given token to the player's start position.
+    
+    public void start(int tIndex) {
+        this.leaveTile(tIndex);
+        this.tokens[tIndex].setPosition(this.pIndex * START_DISTANCE);
+        this.tokens[tIndex].setOut(true);
+        this.tokensOut |= 1 << tIndex;
+        this.enterTile(tIndex);
+    }
+    
+     // Sends a given token to the player's home area.
+     
+    public void outOfBoard(int tIndex) {
+        if (!this.tokens[tIndex].getFinalTrack()) {
+            this.leaveTile(tIndex);
+            this.tokens[tIndex].sendHome();
+            this.tokensOut &= ~(1 << tIndex);
+            this.enterTile(tIndex);
+        }
+    }
+
+    private void startFinalTrack(int pos, int tIndex) {
+        this.tokens[tIndex].setPosition(pos);
+        this.tokens[tIndex].setFinalTrack(true);
+        this.checkGoal(tIndex);
+    }
+
+     // Checks whether a token is standing in a special tile in the board and acts accordingly:
+     // If the token is standing in a star it is moved to the next star in the board,  
+     // if it is standing in a globe, the player gets another chance to roll the dice, and
+     // if it is standing in the player's start position, the token is safe and can not be sent to its home area by other players.
+     // The tile attributes and the destination of the star jump are read from the MoveTable.
+  
+    public void checkSpecial(int tIndex, Board board) {
+        Token token = this.tokens[tIndex];
+        this.leaveTile(tIndex);
+        token.setSafe(false);
+        if (!token.getFinalTrack()&&token.getPosition()!=OUT_OF_BOARD) {
+            int tile = MoveTable.get(this.pIndex, PackedState.code(this.pIndex, token), 0);
+            if (MoveTable.is(tile, STAR))
+                token.setPosition(PackedState.absolutePosition(this.pIndex, MoveTable.jump(tile)));
+            else if (MoveTable.is(tile, GLOBE))
+                this.turn = true;
+            else if (MoveTable.is(tile, START_TILE))
+                token.setSafe(true);
+        }
+        this.enterTile(tIndex);
+    }
+
+     // Move a player's token given its index and the dice result.
+     // The destination is read from the MoveTable instead of being computed with modulo arithmetic.
+     
+    public void moveSelectedToken(int tokenIndex, int diceResult) {
+        Token token = this.tokens[tokenIndex];
+        int move = MoveTable.get(this.pIndex, PackedState.code(this.pIndex, token), diceResult);
+        int dest = MoveTable.dest(move);
+        if (MoveTable.is(move, FROM_HOME)) {
+            this.start(tokenIndex);
+            this.setTurn(false);
+        } else if (MoveTable.is(move, ENTER_FINAL_TRACK)) {
+            this.leaveTile(tokenIndex);
+            this.startFinalTrack(dest - FINAL_TRACK, tokenIndex);
+            this.enterTile(tokenIndex);
+        } else {
+            this.leaveTile(tokenIndex);
+            token.setPosition(dest >= FINAL_TRACK ? dest - FINAL_TRACK : PackedState.absolutePosition(this.pIndex, dest));
+            this.enterTile(tokenIndex);
+            this.checkGoal(tokenIndex);
+        }
+    }
+}
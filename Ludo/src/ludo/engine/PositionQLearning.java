@@ -0,0 +1,275 @@
+package ludo.engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import ludo.engine.Autoplay.AutoplayMode;
+import static ludo.engine.MoveTable.NOT_ON_TRACK;
+import static ludo.engine.MoveTable.START_TILE;
+import static ludo.engine.PackedState.AT_GOAL;
+import static ludo.engine.PackedState.HOME;
+
+
+ // Q-learning of the whole position, by self-play of real rounds of the engine (GameState, with captures, the four tokens
+ // of every player and the special board), for the positionQLearning mode.
+ //
+ // A move is described by a compact key (see key): the progress of the moved token and the dice result, whether it sends
+ // opponent tokens home, the opponent tokens within reach behind the token before and after the move (danger zones),
+ // the tokens of the player at home and at the goal, and the progress of the player relative to the best opponent.
+ // The values of the keys are stored in a sparse QValueMap, which only holds the keys seen in training.
+ //
+ // The four players share the table. Each decision of a player updates the value of the previous move of the same player
+ // with the reward earned in between (the change of its progress relative to the opponents) and the best value of the
+ // new position; the last move of a player is updated with the reward of its place in the round.
+ //
+ // Usage: java ludo.engine.PositionQLearning [games] [regular|special] [seed]
+ // Trains the table in tableFile (starting from it if it exists) with the given number of rounds, and writes it.
+
+
+public class PositionQLearning {
+
+    static final double ALPHA = 0.05;
+    static final double GAMMA = 0.95;
+    static final double EPSILON = 0.1; //probability of a random move in training
+    static final int DEFAULT_GAMES = 100000;
+    static final double[] PLACE_REWARD = {1, 1.0 / 3, -1.0 / 3, -1}; //reward of the place of a player in the round
+    static File tableFile = new File("qpositions.bin"); //table of the positionQLearning mode (see QValueMap)
+    private static volatile QValueMap table; //the table loaded in memory
+
+    //bit layout of a key
+    static final int DICE_SHIFT = 6;
+    static final int SPECIAL_BIT = 1 << 9;
+    static final int CAPTURE_BIT = 1 << 10;
+    static final int DANGER_FROM_SHIFT = 11;
+    static final int DANGER_TO_SHIFT = 13;
+    static final int HOME_SHIFT = 15;
+    static final int GOAL_SHIFT = 18;
+    static final int RACE_SHIFT = 21;
+    static final int MAX_DANGER = 3;
+    static final int RACE_STEP = 16; //progress codes of each race bucket
+    static final int RACE_BUCKETS = 7; //buckets ahead of (and behind) the best opponent
+
+    private final QValueMap values;
+    private final RandomStream random;
+    private final ThreatHistogram threats = new ThreatHistogram();
+    private final long[] pendingKey = new long[4]; //previous move of each seat, or QValueMap.FREE
+    private final double[] pendingPotential = new double[4]; //relative progress of each seat at its previous move
+    private long games;
+    private long decisions;
+
+
+     // Initializes the training of the given table, with the given random stream for the dice rolls and the exploration.
+
+    public PositionQLearning(QValueMap values, RandomStream random) {
+        this.values = values;
+        this.random = random;
+    }
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_GAMES;
+        boolean special = args.length > 1 ? args[1].equalsIgnoreCase("special") : GameState.DEFAULT_BOARD;
+        RandomStream random = args.length > 2 ? RandomStream.seeded(Long.parseLong(args[2])) : RandomStream.create();
+
+        QValueMap values = new QValueMap();
+        if (tableFile.exists()) {
+            try {
+                values = QValueMap.read(tableFile);
+            } catch (IOException ex) {
+                System.err.println(ex.getMessage() + ", starting from an empty table");
+            }
+        }
+        PositionQLearning learning = new PositionQLearning(values, random);
+        long start = System.nanoTime();
+        learning.train(games, special);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d games (%s board), %d decisions in %.2f s (%.0f decisions/s), %d entries%n",
+                learning.getGames(), special ? "special" : "regular", learning.getDecisions(), seconds,
+                learning.getDecisions() / seconds, values.size());
+        try {
+            writeTable(values);
+        } catch (IOException ex) {
+            System.err.println(ex.getMessage());
+        }
+    }
+
+
+     // Plays the given number of rounds between four players that learn from the same table.
+
+    public void train(int games, boolean special) {
+        for (int g = 0; g < games; g++)
+            play(Simulation.newGame(AutoplayMode.positionQLearning, special));
+    }
+
+    // Plays a round with makeRoll and makeMove, choosing the moves with the table (or randomly, with probability EPSILON)
+    // and updating the table after every decision.
+
+    private void play(GameState game) {
+        Arrays.fill(pendingKey, QValueMap.FREE);
+        for (int rolls = 0; game.getPlaying() && rolls < Simulation.MAX_ROLLS; rolls++) {
+            game.makeRoll(random.nextInt(6) + 1);
+            if (game.getDiceRoller())
+                continue;
+            int seat = game.getCurrentPlayer();
+            threats.build(game, seat);
+            long context = context(game);
+            int xTokens = game.getXTokens();
+            int token = -1;
+            long key = 0;
+            double best = 0;
+            for (int out = xTokens; out != 0; out &= out - 1) {
+                int t = Integer.numberOfTrailingZeros(out);
+                long k = key(context, game, t, threats);
+                double q = values.get(k, 0);
+                if (token < 0 || q > best) {
+                    token = t;
+                    key = k;
+                    best = q;
+                }
+            }
+            double potential = potential(game, seat);
+            if (pendingKey[seat] != QValueMap.FREE)
+                update(pendingKey[seat], potential - pendingPotential[seat] + GAMMA * best);
+            if (random.nextDouble() < EPSILON) {
+                token = PackedState.nthBit(xTokens, random.nextInt(Integer.bitCount(xTokens)));
+                key = key(context, game, token, threats);
+            }
+            pendingKey[seat] = key;
+            pendingPotential[seat] = potential;
+            game.makeMove(token);
+            decisions++;
+            int place = game.getWinners().indexOf(seat);
+            if (place >= 0) {
+                update(key, potential(game, seat) - potential + PLACE_REWARD[place]);
+                pendingKey[seat] = QValueMap.FREE;
+            }
+        }
+        games++;
+    }
+
+    // Moves the value of the key towards the target by the learning rate ALPHA.
+
+    private void update(long key, double target) {
+        double q = values.get(key, 0);
+        values.put(key, q + ALPHA * (target - q));
+    }
+
+
+     // Gets the progress of the player with the given seat relative to the average of the other players,
+     // in the range [-1, 1]: the reward of a move is the change of this value.
+
+    static double potential(GameState game, int seat) {
+        double others = 0;
+        for (int s = 0; s < 4; s++)
+            if (s != seat)
+                others += progress(game, s);
+        return (progress(game, seat) - others / 3) / (4 * AT_GOAL);
+    }
+
+    // Gets the sum of the progress codes of the tokens of the player with the given seat [0-232].
+
+    private static int progress(GameState game, int seat) {
+        Player player = game.getPlayer(seat);
+        int progress = 0;
+        for (int t = 0; t < 4; t++)
+            progress += PackedState.code(seat, player.getToken(t));
+        return progress;
+    }
+
+
+     // Gets the part of the keys of the current player's moves that does not depend on the moved token:
+     // the type of board, the tokens at home and at the goal, and the race bucket, which compares the progress of the player
+     // with the best opponent still in the game in steps of RACE_STEP progress codes.
+
+    static long context(GameState game) {
+        int seat = game.getCurrentPlayer();
+        Player player = game.getPlayer(seat);
+        int home = 0;
+        for (int t = 0; t < 4; t++)
+            if (PackedState.code(seat, player.getToken(t)) == HOME)
+                home++;
+        int best = 0;
+        for (int s : game.getXPlayers())
+            if (s != seat)
+                best = Math.max(best, progress(game, s));
+        int race = Math.max(-RACE_BUCKETS, Math.min(RACE_BUCKETS, (progress(game, seat) - best) / RACE_STEP)) + RACE_BUCKETS;
+        long context = (long) home << HOME_SHIFT | (long) player.getGoal() << GOAL_SHIFT | (long) race << RACE_SHIFT;
+        return game.getBoard().getSpecial() ? context | SPECIAL_BIT : context;
+    }
+
+
+     // Gets the key of the move of the token tIndex of the current player with the current dice result.
+     // @param context the part of the key given by context(game)
+     // @param threats the histogram of the opponents of the current player
+
+    static long key(long context, GameState game, int tIndex, ThreatHistogram threats) {
+        int seat = game.getCurrentPlayer();
+        Token token = game.getPlayer(seat).getToken(tIndex);
+        int dice = game.getDice().getResult();
+        int code = PackedState.code(seat, token);
+        int move = MoveTable.get(seat, code, dice);
+        boolean special = (context & SPECIAL_BIT) != 0;
+
+        long key = context | code | (long) dice << DICE_SHIFT;
+        int pos = MoveTable.position(move);
+        if (pos != NOT_ON_TRACK && threats.count(pos) != 0)
+            key |= CAPTURE_BIT;
+        if (PackedState.onMainTrack(code) && !token.getSafe())
+            key |= (long) Math.min(MAX_DANGER, threats.behind(PackedState.absolutePosition(seat, code))) << DANGER_FROM_SHIFT;
+        int dest = special ? MoveTable.jump(move) : MoveTable.dest(move);
+        if (PackedState.onMainTrack(dest) && !(special && MoveTable.is(move, START_TILE)))
+            key |= (long) Math.min(MAX_DANGER, threats.behind(PackedState.absolutePosition(seat, dest))) << DANGER_TO_SHIFT;
+        return key;
+    }
+
+
+     // Stores the table into the file of the positionQLearning mode.
+     // The computer players load the new table on their next move.
+
+    public static void writeTable(QValueMap values) throws IOException {
+        values.write(tableFile);
+        table = null;
+    }
+
+
+     // Gets the table loaded in memory, shared by every thread.
+     // The file is read the first time this method is called (or after it is written again).
+     // Without a file (or if it can not be read) the table is empty, and the positionQLearning mode plays like customAI.
+
+    public static QValueMap getTable() {
+        QValueMap t = table;
+        if (t == null) {
+            synchronized (PositionQLearning.class) {
+                t = table;
+                if (t == null) {
+                    try {
+                        if (tableFile.exists())
+                            t = QValueMap.read(tableFile);
+                    } catch (IOException ex) {
+                        System.err.println(ex.getMessage() + ", using an empty table");
+                    }
+                    table = t == null ? new QValueMap(0) : t;
+                    t = table;
+                }
+            }
+        }
+        return t;
+    }
+
+    public QValueMap getValues() {
+        return values;
+    }
+
+
+     // Gets the number of rounds played in training.
+
+    public long getGames() {
+        return games;
+    }
+
+
+     // Gets the number of moves chosen in training.
+
+    public long getDecisions() {
+        return decisions;
+    }
+}
@@ -0,0 +1,384 @@
+package ludo.engine;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Scanner;
+
+public class QLearning {
+        static final double ALPHA = 0.001;
+        static final double GAMMA = 0.75;
+        static final int ITERATIONS = 100000000;
+        static final int CHECKPOINT_ITERATIONS = 10000000; //iterations between two checkpoints of learn
+        static final int REPORT_ITERATIONS = 1000000; //iterations of a reporting window of the training metrics
+        static final int BOARDLENGTH = 57;
+        static final int LASTSQUARE = BOARDLENGTH - 1;
+
+        static double QTable[][] = new double[BOARDLENGTH][6];
+        static File inputFile = new File("qtable.txt"); //text dump of the qTable, for debugging
+        static File tableFile = new File("qtable.bin"); //binary qTable used by the qLearning mode (see QTableFile)
+        static File checkpointFile = new File("qtable.ckpt"); //checkpoint of an unfinished training (see learn)
+        static File metricsFile = new File("qtraining.csv"); //metrics of each reporting window of QLearning.main
+        private static volatile QTableFile table; //the qTable loaded in memory
+
+        private RandomStream random;
+        private final double[][] qTable; //the qTable trained by this object: QTable, or a table of its own
+        private long iterations;
+        private int position; //token position (index in the qTable)
+        private final long[] visits = new long[BOARDLENGTH]; //iterations that started on each tile
+        private double rewards; //sum of the rewards of the iterations
+        private final TrainingMetrics metrics = new TrainingMetrics();
+
+
+     // Initializes the q-learning algorithm with an arbitrary random stream for the dice rolls.
+     
+    public QLearning() {
+        this(RandomStream.create());
+    }
+    
+    
+     // Initializes the q-learning algorithm with the given random stream for the dice rolls, so the training can be reproduced.
+     
+    public QLearning(RandomStream random) {
+        this(random, QTable);
+    }
+    
+    
+     // Initializes the q-learning algorithm to train the given qTable [BOARDLENGTH][6] instead of the shared QTable,
+     // so several threads can train their own tables (see ParallelQLearning).
+     
+    QLearning(RandomStream random, double[][] table) {
+        this.random = random;
+        this.qTable = table;
+    }
+
+     // Gets a 2 dimensional array of double values representing the rewards for a move to each of the board tiles given a dice result.
+     
+    public double[][] getQTable() { 
+	    return qTable;
+    }
+        
+     // Implements going backwards if the player dice roll would bring her past the last square
+     
+    private int getIndex( int i ) {
+	if (i<BOARDLENGTH) { 
+	    return(i);
+	} else {
+	    return(LASTSQUARE-(i-LASTSQUARE));
+	}
+    } 
+
+     // Prints the QTable 
+     
+    void printQTable() {
+        printQTable(qTable);
+    }
+    
+    
+     // Prints the given qTable, such as the QTable merged by ParallelQLearning
+     
+    static void printQTable(double[][] qTable) {
+	for(int j=0;j<6;j++) {
+	    for(int i=0;i<BOARDLENGTH;i++) {
+		System.out.print( String.format( "%.1f", qTable[i][j] ) + " "); //prints with 3 decimals
+	    }
+	    System.out.println("");
+	}
+	System.out.println("");
+    }
+    
+    
+     // Find the maximum Q-Value for the possible actions in the current state
+     
+    double QForMaxAction( int i ) {
+	double max=0;
+	for(int j=0;j<6;j++) {
+	    if (qTable[i][j]>max) max = qTable[i][j];
+	}
+	return(max);
+    }
+
+     // Usage: java ludo.engine.QLearning [iterations] [threshold] [seed]
+     // Runs learn, which goes on from the checkpoint of a previous run if it was stopped.
+     // The training metrics are registered in JMX and appended to metricsFile after every reporting window.
+     
+    public static void main(String[] args) {
+        long iterations = args.length > 0 ? Long.parseLong(args[0]) : ITERATIONS;
+        double threshold = args.length > 1 ? Double.parseDouble(args[1]) : 0;
+        RandomStream random = args.length > 2 ? RandomStream.seeded(Long.parseLong(args[2])) : RandomStream.create();
+        QLearning qLearning = new QLearning(random);
+        qLearning.getMetrics().register();
+        qLearning.getMetrics().setCsv(metricsFile);
+        qLearning.learn(iterations, threshold);
+        System.out.println(qLearning.getMetrics());
+    }
+    
+    
+     // Gets the metrics of the training, published after every reporting window of learn.
+     
+    public TrainingMetrics getMetrics() {
+        return metrics;
+    }
+    
+    
+     // This method updates the reward value of each tile with each iteration (simulation of a game).
+     
+    public void learn() {
+        learn(ITERATIONS, 0);
+    }
+    
+    
+     // Trains the qTable for the given number of iterations in total as a job that can be stopped and resumed, and writes it.
+     // Every CHECKPOINT_ITERATIONS the qTable, the number of iterations, the token position and the seed of the random stream
+     // of the next iterations are written to checkpointFile. If the file exists, the training goes on from it,
+     // so a run that was killed and started again ends with the same qTable as a run that was not stopped.
+     // The training stops early when no value of the qTable changed more than threshold since the previous checkpoint
+     // (0 to never stop early). The checkpoint is deleted when the training is over.
+     // The metrics (see getMetrics) are published every REPORT_ITERATIONS.
+     
+    public void learn(long iterations, double threshold) {
+        boolean resumed = false;
+        if (checkpointFile.exists()) {
+            try {
+                resume(QTableFile.open(checkpointFile));
+                resumed = true;
+                System.out.println("Resuming from " + checkpointFile + " after " + this.iterations + " iterations");
+            }
+            catch (IOException ex) {System.err.println(ex.getMessage()+", starting a new training");}
+        }
+        if (!resumed)
+            this.random = RandomStream.seeded(this.random.nextLong());
+        double[][] previous = new double[BOARDLENGTH][6];
+        double[][] window = new double[BOARDLENGTH][6];
+        while (this.iterations < iterations) {
+            copy(qTable, previous);
+            long end = Math.min(iterations, this.iterations + CHECKPOINT_ITERATIONS);
+            while (this.iterations < end) {
+                copy(qTable, window);
+                double before = this.rewards;
+                long start = System.nanoTime();
+                int n = (int) Math.min(REPORT_ITERATIONS, end - this.iterations);
+                train(n);
+                metrics.record(this.iterations, n, System.nanoTime() - start, this.rewards - before, maxDelta(window), visits);
+            }
+            double delta = maxDelta(previous);
+            //the next iterations use a new stream, whose seed is saved in the checkpoint
+            long seed = this.random.nextLong();
+            this.random = RandomStream.seeded(seed);
+            try {
+                QTableFile.of(rows(qTable), ALPHA, GAMMA, this.iterations, position, seed).write(checkpointFile);
+            }
+            catch (IOException ex) {System.err.println(ex.getMessage());}
+            if (delta < threshold) {
+                System.out.printf("Stopped after %d iterations: max change of a q-value %.3g < %.3g%n", this.iterations, delta, threshold);
+                break;
+            }
+        }
+        printQTable();
+        //writes the table into the binary file used by the qLearning mode, and a text dump of it
+        try {
+            writeTable(qTable, this.iterations);
+            writeQTable(qTable);
+            checkpointFile.delete();
+        } 
+        catch (IOException ex) {System.err.println(ex.getMessage());}
+    }
+    
+    // Copies the values of a qTable into another one.
+    
+    private static void copy(double[][] from, double[][] to) {
+        for (int i=0;i<BOARDLENGTH;i++)
+            System.arraycopy(from[i], 0, to[i], 0, 6);
+    }
+    
+    // Gets the largest difference between a value of the qTable and the same value of a previous copy.
+    
+    private double maxDelta(double[][] previous) {
+        double delta = 0;
+        for (int i=0;i<BOARDLENGTH;i++)
+            for (int j=0;j<6;j++)
+                delta = Math.max(delta, Math.abs(qTable[i][j] - previous[i][j]));
+        return delta;
+    }
+    
+    // Restores the qTable, the number of iterations, the token position and the random stream of a checkpoint.
+    
+    private void resume(QTableFile checkpoint) throws IOException {
+        if (checkpoint.getRows() != 6 || checkpoint.getColumns() != BOARDLENGTH || checkpoint.getPosition() < 0
+                || checkpoint.getPosition() >= LASTSQUARE)
+            throw new IOException(checkpointFile + " is not a checkpoint of this qTable");
+        for (int j=0;j<6;j++)
+            for (int i=0;i<BOARDLENGTH;i++)
+                qTable[i][j] = checkpoint.get(j, i);
+        this.iterations = checkpoint.getIterations();
+        this.position = checkpoint.getPosition();
+        this.random = RandomStream.seeded(checkpoint.getSeed());
+    }
+    
+    
+     // Runs the given number of iterations of the q-learning rule, without printing or writing the qTable.
+     // The token goes on from where the previous call left it.
+     // The visits of each tile and the sum of the rewards are added up for the training metrics.
+     
+    public void train(int iterations) {
+	int d;
+	double r;
+	double rewards=0;
+	long[] visits=this.visits;
+	int i=position; 
+	// token position (index in QTable)
+
+	this.iterations += iterations;
+	for(int cnt=0; cnt<iterations; cnt++) {
+	    d = 1 + random.nextInt(6); //dice roll
+	    
+	    //reward function modified to fit a board with special tiles
+	    if ( i+d == LASTSQUARE )
+		r = 1; 
+	    // 1 point given if token lands on last square
+            else{
+                if (Board.is(i+d, Board.GLOBE|Board.STAR))
+                    r=0.1;
+                else
+                    if (i+d==50)
+                        r=-0.5;
+                    else
+                        r=0;
+            }
+            
+            rewards+=r;
+            visits[i]++;
+            
+            //q-learning rule
+	    qTable[i][d-1] = (1-ALPHA)*qTable[i][d-1] + ALPHA*(r + GAMMA * QForMaxAction(getIndex(i+d))); 
+	    
+	    i = getIndex(i+d); // move token (backwards if it hits the end
+	    if(i==LASTSQUARE) i=0; // if land on the last square - return to start = new game
+	    //if (cnt%100000==0) printQTable(); // once in a while print QTable
+	}
+	position=i;
+	this.rewards+=rewards;
+    }
+    
+    
+     // Stores each of the values of the qTable into a text file, which can be read for debugging.
+     // Makes a new line for each of the dice results [1-6]
+     // Each line will contain the value of the constant BOARDLENGTH number of double values, they represent each of the tiles of the ludo board.
+    
+    public static void writeQTable() throws FileNotFoundException{
+        writeQTable(QTable);
+    }
+    
+    
+     // Stores the values of the given qTable [BOARDLENGTH][6] into the text file (see writeQTable()).
+    
+    public static void writeQTable(double[][] qTable) throws FileNotFoundException{
+        PrintWriter out = new PrintWriter(inputFile);
+        for(int j=0;j<6;j++) {
+	    for(int i=0;i<BOARDLENGTH;i++) {
+                out.print(qTable[i][j]+ " ");
+	    }
+	    out.println("");
+	}
+        out.close();
+    }
+    
+    
+     // Stores the qTable into the binary file of the qLearning mode, with the number of iterations it was trained for.
+     // The computer players load the new table on their next move.
+    
+    public static void writeTable(long iterations) throws IOException{
+        writeTable(QTable, iterations);
+    }
+    
+    
+     // Stores the given qTable [BOARDLENGTH][6] into the binary file of the qLearning mode (see writeTable(long)).
+    
+    public static void writeTable(double[][] qTable, long iterations) throws IOException{
+        QTableFile.of(rows(qTable), ALPHA, GAMMA, iterations).write(tableFile);
+        table = null;
+    }
+    
+    // Gets the values of a qTable [BOARDLENGTH][6] in the order of the binary file: one row for each of the dice results.
+    
+    private static double[][] rows(double[][] qTable){
+        double[][] values = new double[6][BOARDLENGTH];
+        for(int j=0;j<6;j++)
+            for(int i=0;i<BOARDLENGTH;i++)
+                values[j][i] = qTable[i][j];
+        return values;
+    }
+    
+    
+     // Gets the qTable loaded in memory, shared by every thread: the value of a move to each tile [0-56] with each dice result.
+     // The binary file is mapped into memory the first time this method is called (or after it is written again).
+     // Without a binary file the text file is read, and without any file (or if it can not be read) every value is 0,
+     // so the qLearning mode moves the first token it can.
+     
+    public static QTableFile getTable(){
+        QTableFile t = table;
+        if (t == null) {
+            synchronized (QLearning.class) {
+                t = table;
+                if (t == null) {
+                    try {
+                        if (tableFile.exists())
+                            t = QTableFile.open(tableFile);
+                        else if (inputFile.exists())
+                            t = QTableFile.of(loadQTable(inputFile), ALPHA, GAMMA, 0);
+                    }
+                    catch (IOException ex) {System.err.println(ex.getMessage()+", using an empty qTable");}
+                    if (t == null || t.getRows() != 6 || t.getColumns() != BOARDLENGTH)
+                        t = QTableFile.of(new double[6][BOARDLENGTH], ALPHA, GAMMA, 0);
+                    table = t;
+                }
+            }
+        }
+        return t;
+    }
+    
+    
+     // Reads a whole qTable text file (see writeQTable).
+     // @return 2 dimensional array [6][BOARDLENGTH] indexed by the dice result - 1 and the tile
+     // @throws IOException if the file can not be read or does not have 6 lines of BOARDLENGTH numbers
+     
+    public static double[][] loadQTable(File file) throws IOException{
+        double[][] values = new double[6][BOARDLENGTH];
+        try (BufferedReader in = new BufferedReader(new FileReader(file))) {
+            for(int j=0;j<6;j++) {
+                String line = in.readLine();
+                String[] columns = line == null ? new String[0] : line.trim().split(" ");
+                if (columns.length < BOARDLENGTH)
+                    throw new IOException(file + ": line " + (j + 1) + " does not have " + BOARDLENGTH + " values");
+                try {
+                    for(int i=0;i<BOARDLENGTH;i++)
+                        values[j][i] = Double.parseDouble(columns[i]);
+                } catch (NumberFormatException ex) {
+                    throw new IOException(file + ": line " + (j + 1) + ": " + ex.getMessage());
+                }
+            }
+        }
+        return values;
+    }
+    
+     // Reads and returns a double value from a qTable file given the row and column where the value is located.
+     // Opens and reads the file on every call: the computer players use the table loaded once by getTable instead.
+     // @param row int number [0-5] representing the dice result - 1
+     
+    public static double readQTable(int row, int column) throws FileNotFoundException{
+        double qValue;
+        Scanner inData = new Scanner(inputFile);
+        String qTableRow="";
+        String[] qTableColumn;
+        for(int j=0;j<row+1;j++) {
+            qTableRow=inData.nextLine();
+	}
+        qTableColumn = qTableRow.split(" ");
+	qValue=Double.parseDouble(qTableColumn[column]);
+        inData.close();
+        return qValue;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,193 @@
+package ludo.engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+
+ // Read-only qTable in the binary format of the qLearning mode, opened by mapping the file into memory.
+ // Every process that opens the same file shares one copy in the page cache, and opening it does no parsing.
+ //
+ // The file is little-endian: a header of HEADER_SIZE bytes followed by the values as doubles, row by row.
+ // header: magic (int), VERSION (int), rows (int), columns (int), bytes per value (int), token position (int),
+ //         alpha (double), gamma (double), training iterations (long), CRC32 of the values (long), seed (long)
+ // The rows are the dice results [1-6] and the columns the tiles of the q-learning board (see QLearning).
+ // The token position and the seed of the random stream of the next iterations let a checkpoint resume the training;
+ // they are 0 in a table that is not a checkpoint.
+
+
+public final class QTableFile {
+
+    public static final int MAGIC = 0x5144554C; //"LUDQ" in little-endian order
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 64;
+
+    private final DoubleBuffer values;
+    private final int rows, columns;
+    private final double alpha, gamma;
+    private final long iterations;
+    private final int position;
+    private final long seed;
+
+    private QTableFile(DoubleBuffer values, int rows, int columns, double alpha, double gamma, long iterations, int position, long seed) {
+        this.values = values;
+        this.rows = rows;
+        this.columns = columns;
+        this.alpha = alpha;
+        this.gamma = gamma;
+        this.iterations = iterations;
+        this.position = position;
+        this.seed = seed;
+    }
+
+
+     // Creates a table in memory with a copy of the given values [row][column] and the parameters of the training.
+
+    public static QTableFile of(double[][] values, double alpha, double gamma, long iterations) {
+        return of(values, alpha, gamma, iterations, 0, 0);
+    }
+
+
+     // Creates a checkpoint of a training in memory: a copy of the given values [row][column], the parameters of the training,
+     // the position of the token and the seed of the random stream of the next iterations.
+
+    public static QTableFile of(double[][] values, double alpha, double gamma, long iterations, int position, long seed) {
+        int columns = values.length == 0 ? 0 : values[0].length;
+        DoubleBuffer buffer = ByteBuffer.allocate(values.length * columns * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+        for (double[] row : values) {
+            if (row.length != columns)
+                throw new IllegalArgumentException("Rows of different length: " + row.length + ", " + columns);
+            buffer.put(row);
+        }
+        return new QTableFile(buffer, values.length, columns, alpha, gamma, iterations, position, seed);
+    }
+
+
+     // Maps a binary qTable file into memory and checks its header and checksum.
+     // @throws IOException if the file can not be read, or is not a qTable of a supported version, or is corrupted
+
+    public static QTableFile open(File file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE)
+                throw new IOException(file + " is not a qTable");
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt(0) != MAGIC)
+            throw new IOException(file + " is not a qTable");
+        if (buffer.getInt(4) != VERSION)
+            throw new IOException(file + ": unsupported qTable version " + buffer.getInt(4));
+        int rows = buffer.getInt(8), columns = buffer.getInt(12);
+        if (buffer.getInt(16) != Double.BYTES)
+            throw new IOException(file + ": unsupported value size " + buffer.getInt(16));
+        if (rows < 0 || columns < 0 || (long) rows * columns * Double.BYTES != buffer.capacity() - HEADER_SIZE)
+            throw new IOException(file + ": size does not match " + rows + "x" + columns + " values");
+        ByteBuffer payload = buffer.duplicate();
+        payload.position(HEADER_SIZE);
+        payload = payload.slice().order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getLong(48) != checksum(payload.duplicate()))
+            throw new IOException(file + ": checksum does not match");
+        return new QTableFile(payload.asDoubleBuffer(), rows, columns, buffer.getDouble(24), buffer.getDouble(32), buffer.getLong(40),
+                buffer.getInt(20), buffer.getLong(56));
+    }
+
+
+     // Writes the table to a binary file. The file is written under a temporary name and then renamed,
+     // so a process that opens it never sees a partly written table.
+
+    public void write(File file) throws IOException {
+        ByteBuffer payload = ByteBuffer.allocate(rows * columns * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        DoubleBuffer all = values.duplicate();
+        all.rewind();
+        payload.asDoubleBuffer().put(all);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(columns).putInt(Double.BYTES).putInt(position);
+        header.putDouble(alpha).putDouble(gamma).putLong(iterations).putLong(checksum(payload.duplicate())).putLong(seed);
+        header.flip();
+
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (header.hasRemaining())
+                channel.write(header);
+            while (payload.hasRemaining())
+                channel.write(payload);
+            channel.force(true);
+        }
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static long checksum(ByteBuffer bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+
+
+     // Gets the value of the given row (dice result - 1) and column (tile).
+
+    public double get(int row, int column) {
+        return values.get(row * columns + column);
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public double getAlpha() {
+        return alpha;
+    }
+
+    public double getGamma() {
+        return gamma;
+    }
+
+
+     // Gets the number of iterations of training of the table.
+
+    public long getIterations() {
+        return iterations;
+    }
+
+
+     // Gets the position of the token [0-56] where the training goes on from a checkpoint.
+
+    public int getPosition() {
+        return position;
+    }
+
+
+     // Gets the seed of the random stream of the iterations after a checkpoint.
+
+    public long getSeed() {
+        return seed;
+    }
+
+
+     // Gets a copy of the values [row][column].
+
+    public double[][] toArray() {
+        double[][] array = new double[rows][columns];
+        for (int row = 0; row < rows; row++)
+            for (int column = 0; column < columns; column++)
+                array[row][column] = get(row, column);
+        return array;
+    }
+}
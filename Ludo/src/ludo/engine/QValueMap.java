@@ -0,0 +1,213 @@
+package ludo.engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+
+ // Sparse table of q-values indexed by long keys, for state spaces too large for an array (see PositionQLearning).
+ // The keys and values are stored in two primitive arrays with open addressing and linear probing,
+ // so an entry costs 12 bytes and a lookup does not allocate. The number of slots is a power of two
+ // and doubles when the table is MAX_LOAD full, up to MAX_CAPACITY slots (hundreds of millions of entries).
+ // Values are stored as floats: the precision is enough for a q-value and halves the size of the table.
+ //
+ // A table is written by a single thread. Once it is not written any more it can be read by any number of threads.
+ //
+ // The file format is little-endian: a header of HEADER_SIZE bytes followed by the entries, each a key (long) and a value (float).
+ // header: MAGIC (int), VERSION (int), number of entries (long), 0 (long), 0 (long)
+
+
+public final class QValueMap {
+
+    public static final int MAGIC = 0x5044554C; //"LUDP" in little-endian order
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 32;
+    public static final int DEFAULT_CAPACITY = 1 << 20;
+    public static final int MAX_CAPACITY = 1 << 30;
+    public static final long FREE = -1; //key of an empty slot, which can not be stored
+
+    private static final double MAX_LOAD = 0.75;
+    private static final int ENTRY_SIZE = Long.BYTES + Float.BYTES;
+
+    private long[] keys;
+    private float[] values;
+    private int mask;
+    private int size;
+
+
+     // Initializes an empty table with the default number of slots.
+
+    public QValueMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+
+     // Initializes an empty table with room for the given number of entries before it grows.
+
+    public QValueMap(int entries) {
+        if (entries < 0 || entries > MAX_CAPACITY * MAX_LOAD)
+            throw new IllegalArgumentException("Entries must be in the range [0, " + (long) (MAX_CAPACITY * MAX_LOAD) + "]: " + entries);
+        int capacity = 16;
+        while (capacity * MAX_LOAD < entries)
+            capacity <<= 1;
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        this.keys = new long[capacity];
+        this.values = new float[capacity];
+        this.mask = capacity - 1;
+        Arrays.fill(keys, FREE);
+    }
+
+    // Spreads the bits of the key over the slot index (finalizer of MurmurHash3).
+
+    private static int hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    // Gets the slot of the key, or the free slot where it would be stored.
+
+    private int slot(long key) {
+        int i = hash(key) & mask;
+        while (keys[i] != key && keys[i] != FREE)
+            i = (i + 1) & mask;
+        return i;
+    }
+
+
+     // Gets the value of the given key, or missing if the key is not in the table.
+
+    public double get(long key, double missing) {
+        int i = slot(key);
+        return keys[i] == FREE ? missing : values[i];
+    }
+
+
+     // Indicates whether the table has a value for the given key.
+
+    public boolean contains(long key) {
+        return key != FREE && keys[slot(key)] != FREE;
+    }
+
+
+     // Stores the value of the given key, adding the key to the table or replacing its previous value.
+     // @throws IllegalStateException if the table is full and has MAX_CAPACITY slots
+
+    public void put(long key, double value) {
+        if (key == FREE)
+            throw new IllegalArgumentException("Key " + FREE + " can not be stored");
+        int i = slot(key);
+        if (keys[i] == FREE) {
+            if (size + 1 > (keys.length * MAX_LOAD)) {
+                grow();
+                i = slot(key);
+            }
+            keys[i] = key;
+            size++;
+        }
+        values[i] = (float) value;
+    }
+
+    private void grow() {
+        if (keys.length >= MAX_CAPACITY)
+            throw new IllegalStateException("The table is full: " + size + " entries");
+        long[] oldKeys = keys;
+        float[] oldValues = values;
+        allocate(keys.length << 1);
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != FREE) {
+                int i = slot(oldKeys[j]);
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+
+     // Gets the number of entries of the table.
+
+    public int size() {
+        return size;
+    }
+
+
+     // Gets the number of slots of the table.
+
+    public int capacity() {
+        return keys.length;
+    }
+
+
+     // Writes the table to a binary file. The file is written under a temporary name and then renamed,
+     // so a process that reads it never sees a partly written table.
+
+    public void write(File file) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(size).putLong(0).putLong(0);
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == FREE)
+                    continue;
+                if (buffer.remaining() < ENTRY_SIZE)
+                    flush(channel, buffer);
+                buffer.putLong(keys[i]).putFloat(values[i]);
+            }
+            flush(channel, buffer);
+            channel.force(true);
+        }
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+
+
+     // Reads a table from a binary file (see write).
+     // @throws IOException if the file can not be read, or is not a table of a supported version, or is truncated
+
+    public static QValueMap read(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC)
+                throw new IOException(file + " is not a table of q-values");
+            if (buffer.getInt(4) != VERSION)
+                throw new IOException(file + ": unsupported table version " + buffer.getInt(4));
+            long entries = buffer.getLong(8);
+            if (entries < 0 || entries > MAX_CAPACITY * MAX_LOAD || HEADER_SIZE + entries * ENTRY_SIZE != buffer.capacity())
+                throw new IOException(file + ": size does not match " + entries + " entries");
+            QValueMap map = new QValueMap((int) entries);
+            buffer.position(HEADER_SIZE);
+            for (long e = 0; e < entries; e++) {
+                long key = buffer.getLong();
+                float value = buffer.getFloat();
+                if (key == FREE)
+                    throw new IOException(file + ": invalid key " + key);
+                map.put(key, value);
+            }
+            return map;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package ludo.engine;
+
+import java.util.SplittableRandom;
+
+
+ // Source of random numbers of the engine: dice casts, the random AutoplayMode and the q-learning episodes.
+ // A stream is used by a single thread. Parallel work gets its own streams with split, which are independent of
+ // the parent and of each other, so a whole run can be reproduced from one master seed without sharing a generator.
+
+
+public interface RandomStream {
+
+
+     // Gets a random int number in the range [0, bound).
+
+    int nextInt(int bound);
+
+
+     // Gets a random long number.
+
+    long nextLong();
+
+
+     // Gets a random double number in the range [0, 1).
+
+    double nextDouble();
+
+
+     // Creates a new stream, independent of this one, and advances this stream.
+
+    RandomStream split();
+
+
+     // Creates a stream that produces the same numbers every time for the given seed.
+
+    static RandomStream seeded(long seed) {
+        return new Splittable(new SplittableRandom(seed));
+    }
+
+
+     // Creates a stream with an arbitrary seed, different for every call.
+
+    static RandomStream create() {
+        return new Splittable(new SplittableRandom());
+    }
+
+
+     // Default implementation, backed by a java.util.SplittableRandom.
+
+    final class Splittable implements RandomStream {
+
+        private final SplittableRandom random;
+
+        public Splittable(SplittableRandom random) {
+            this.random = random;
+        }
+
+        @Override
+        public int nextInt(int bound) {
+            return random.nextInt(bound);
+        }
+
+        @Override
+        public long nextLong() {
+            return random.nextLong();
+        }
+
+        @Override
+        public double nextDouble() {
+            return random.nextDouble();
+        }
+
+        @Override
+        public RandomStream split() {
+            return new Splittable(random.split());
+        }
+    }
+}
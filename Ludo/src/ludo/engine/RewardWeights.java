@@ -0,0 +1,180 @@
+package ludo.engine;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Properties;
+import ludo.engine.Player.Color;
+
+
+ // Weights of the customAI reward model: one int per Feature of a move, stored in an array indexed by the Feature.
+ // The reward of a move is the sum of the weights of its features (see Autoplay.getReward).
+ // Weights are immutable, so one object can be shared by any number of controllers and threads.
+ //
+ // The weights can be read from a properties file, with one line per feature for every player (sendHome=10)
+ // and optionally lines for a single player, which take precedence (red.sendHome=12). Missing features keep the default weight.
+ // Autoplay reads CONFIG_FILE from the working directory if it exists.
+
+
+public final class RewardWeights {
+
+
+     // The features of a move that are rewarded.
+
+    public enum Feature {
+
+         // Moves a token out of the home area with a six.
+
+        startToken,
+
+         // Moves a token of the final track to the goal (a move of the final track that does not reach it loses half of this).
+
+        hitGoal,
+
+         // Enters the final track.
+
+        startFinalTrack,
+
+         // Lands on a star of a special board.
+
+        hitStar,
+
+         // Lands on a globe of a special board.
+
+        hitGlobe,
+
+         // Sends opponent tokens to their home area.
+
+        sendHome,
+
+         // For each opponent token within 6 tiles behind the destination.
+
+        aheadOpponent,
+
+         // For each opponent token within 6 tiles ahead of the destination.
+
+        behindOpponent,
+
+         // Lands on the last star before the final track entry.
+
+        hitLastStar
+    }
+
+    private static final Feature[] FEATURES = Feature.values();
+
+    public static final File CONFIG_FILE = new File("rewards.properties");
+    public static final RewardWeights DEFAULT = new RewardWeights(10, 5, 9, 6, 8, 10, -3, 2, -15);
+
+    private final int[] weights;
+
+
+     // Initializes the weights given in the order of the Feature constants.
+
+    public RewardWeights(int... weights) {
+        if (weights.length != FEATURES.length)
+            throw new IllegalArgumentException("Expected " + FEATURES.length + " weights: " + weights.length);
+        this.weights = weights.clone();
+    }
+
+
+     // Gets the weight of the given feature.
+
+    public int get(Feature feature) {
+        return weights[feature.ordinal()];
+    }
+
+
+     // Gets a copy of these weights with the weight of the given feature changed.
+
+    public RewardWeights with(Feature feature, int weight) {
+        RewardWeights copy = new RewardWeights(weights);
+        copy.weights[feature.ordinal()] = weight;
+        return copy;
+    }
+
+
+     // Gets a bound of the absolute value of the reward of any move, whatever the signs of the weights: the sum of the absolute
+     // values of every feature that can apply to one move. A tile is never both a star and a globe, and the opponent tokens
+     // within reach ahead of and behind the destination are different tokens, so there are at most 12 of them together.
+
+    public int maxReward() {
+        int track = Math.max(Math.abs(get(Feature.hitStar)), Math.abs(get(Feature.hitGlobe))) + Math.abs(get(Feature.startFinalTrack))
+                + Math.abs(get(Feature.sendHome)) + Math.abs(get(Feature.hitLastStar))
+                + 12 * Math.max(Math.abs(get(Feature.aheadOpponent)), Math.abs(get(Feature.behindOpponent)));
+        return Math.max(track, Math.max(Math.abs(get(Feature.startToken)), Math.abs(get(Feature.hitGoal))));
+    }
+
+
+     // Reads the weights of each seat from a properties file, starting from the default weights.
+     // @return array of 4 weights, indexed by seat
+     // @throws IOException if the file can not be read, or has an unknown key or a value that is not an int number
+
+    public static RewardWeights[] load(File file) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(file)) {
+            properties.load(in);
+        }
+        int[][] seats = new int[4][];
+        for (int seat = 0; seat < 4; seat++)
+            seats[seat] = DEFAULT.weights.clone();
+        for (int pass = 0; pass < 2; pass++) { //the lines for every player first, then the lines for a single player
+            for (String key : properties.stringPropertyNames()) {
+                int dot = key.indexOf('.');
+                if ((dot >= 0) != (pass == 1))
+                    continue;
+                int seat = dot < 0 ? -1 : seat(file, key, key.substring(0, dot));
+                Feature feature = feature(file, key, key.substring(dot + 1));
+                int weight;
+                try {
+                    weight = Integer.parseInt(properties.getProperty(key).trim());
+                } catch (NumberFormatException e) {
+                    throw new IOException(file + ": the weight of " + key + " is not an int number: " + properties.getProperty(key));
+                }
+                for (int s = 0; s < 4; s++)
+                    if (seat < 0 || seat == s)
+                        seats[s][feature.ordinal()] = weight;
+            }
+        }
+        RewardWeights[] weights = new RewardWeights[4];
+        for (int seat = 0; seat < 4; seat++)
+            weights[seat] = new RewardWeights(seats[seat]);
+        return weights;
+    }
+
+    private static int seat(File file, String key, String color) throws IOException {
+        for (Color c : Color.values())
+            if (c.name().equals(color))
+                return c.ordinal();
+        throw new IOException(file + ": unknown player in " + key);
+    }
+
+    private static Feature feature(File file, String key, String name) throws IOException {
+        for (Feature f : FEATURES)
+            if (f.name().equals(name))
+                return f;
+        throw new IOException(file + ": unknown reward feature in " + key);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof RewardWeights && Arrays.equals(weights, ((RewardWeights) o).weights);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(weights);
+    }
+
+
+     // Gets the weights as the lines of a properties file.
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Feature f : FEATURES)
+            sb.append(f.name()).append('=').append(get(f)).append(System.lineSeparator());
+        return sb.toString();
+    }
+}
@@ -0,0 +1,99 @@
+package ludo.engine;
+
+import java.util.Arrays;
+import java.util.List;
+import ludo.engine.Autoplay.AutoplayMode;
+import ludo.engine.Player.Color;
+
+
+ // Headless entry point of the ludo engine.
+ // Plays rounds of ludo between computer-operated players without loading any image or opening a window,
+ // so it can run on a server without a display.
+ //
+ // Usage: java ludo.engine.Simulation [games] [autoplayMode] [regular|special]
+
+
+public class Simulation {
+
+    public static final int DEFAULT_GAMES = 1000;
+    public static final int MAX_ROLLS = 100000; //safety limit for a single round
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_GAMES;
+        AutoplayMode mode = args.length > 1 ? AutoplayMode.valueOf(args[1]) : GameState.DEFAULT_AUTOMODE;
+        boolean special = args.length > 2 ? args[2].equalsIgnoreCase("special") : GameState.DEFAULT_BOARD;
+
+        int[] wins = new int[4];
+        long rolls = 0;
+        long start = System.nanoTime();
+        for (int g = 0; g < games; g++) {
+            GameState game = newGame(mode, special);
+            play(game);
+            if (!game.getWinners().isEmpty())
+                wins[game.getWinners().get(0)]++;
+            rolls += game.getDice().getDiceRollCount();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%d games (%s, %s board) in %.2f s, %.0f games/s, %.1f rolls/game%n",
+                games, mode, special ? "special" : "regular", seconds, games / seconds, (double) rolls / Math.max(games, 1));
+        for (Color c : Color.values())
+            System.out.printf("  %-6s wins: %d%n", c.name(), wins[c.ordinal()]);
+    }
+
+
+     // Creates a round with all 4 players computer-operated with the given AutoplayMode.
+
+    public static GameState newGame(AutoplayMode mode, boolean special) {
+        List<Color> colors = Arrays.asList(Color.values());
+        List<Boolean> auto = Arrays.asList(true, true, true, true);
+        List<AutoplayMode> modes = Arrays.asList(mode, mode, mode, mode);
+        return new GameState(colors, auto, modes, special);
+    }
+
+
+     // Plays a round until every player has reached the goal (or MAX_ROLLS dice casts have been made).
+     // Follows the same sequence of calls as the GUI timers: roll, move or pass, and let the computer player move.
+
+    public static void play(GameState game) {
+        while (game.getPlaying() && game.getDice().getDiceRollCount() < MAX_ROLLS) {
+            if (game.getDiceRoller()) {
+                game.rollAndCheckActiveTokens();
+                game.checkMoveOrPass();
+            } else {
+                game.autoMove();
+            }
+        }
+    }
+
+
+     // Plays a round like play(game), writing every dice cast and every move into the given record.
+     // A move is recorded as a capture if it sent tokens of other players to their home area.
+
+    public static void play(GameState game, GameRecord record) {
+        while (game.getPlaying() && game.getDice().getDiceRollCount() < MAX_ROLLS) {
+            if (game.getDiceRoller()) {
+                game.rollAndCheckActiveTokens();
+                record.roll(game.getDice().getResult());
+                game.checkMoveOrPass();
+            } else {
+                int seat = game.getCurrentPlayer();
+                int others = tokensOutOfOthers(game, seat);
+                int token = game.getComputerPlayer().selectToken(game);
+                game.selectAndMove(token);
+                if (game.getDiceRoller())
+                    record.move(token, tokensOutOfOthers(game, seat) < others);
+            }
+        }
+    }
+
+    // Counts the tokens out of the home area of every player except the given one.
+
+    static int tokensOutOfOthers(GameState game, int seat) {
+        int tokens = 0;
+        for (int s = 0; s < 4; s++)
+            if (s != seat)
+                tokens += Integer.bitCount(game.getPlayer(s).getTokensOut());
+        return tokens;
+    }
+}
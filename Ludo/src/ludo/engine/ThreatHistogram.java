@@ -0,0 +1,87 @@
+package ludo.engine;
+
+import java.util.Arrays;
+import static ludo.engine.Board.TRACK_LENGTH;
+
+
+ // Number of opponent tokens on each tile of the main track, seen from one player, built once per decision.
+ // The counts are stored with REACH empty tiles before and after the track, together with their prefix sums,
+ // so the tokens within REACH tiles ahead of or behind any tile are counted with two array reads.
+ // Distances are counted along the numbering of the track, from tile 0 to 51, like the rewards of the customAI mode:
+ // the windows do not wrap around from tile 51 to tile 0.
+ //
+ // The histogram is filled from the positions of the tokens, so it can be used by any controller that has a GameState.
+ // An object is reused from decision to decision and is used by a single thread.
+
+
+public class ThreatHistogram {
+
+    public static final int REACH = 6; //tiles a token can move with one dice cast
+
+    private final int[] counts = new int[TRACK_LENGTH + 2 * REACH];
+    private final int[] sums = new int[TRACK_LENGTH + 2 * REACH + 1]; //sums[i] = tokens on the first i entries of counts
+    private int seat = -1;
+
+
+     // Counts the tokens of the opponents of the current player of the game.
+
+    public ThreatHistogram build(GameState game) {
+        return build(game, game.getCurrentPlayer());
+    }
+
+
+     // Counts the tokens on the main track of every player still in the game except the given one.
+
+    public ThreatHistogram build(GameState game, int seat) {
+        this.seat = seat;
+        Arrays.fill(counts, 0);
+        for (int playerIndex : game.getXPlayers()) {
+            if (playerIndex == seat)
+                continue;
+            Player player = game.getPlayer(playerIndex);
+            for (int out = player.getTokensOut(); out != 0; out &= out - 1) {
+                Token token = player.getToken(Integer.numberOfTrailingZeros(out));
+                if (!token.getFinalTrack())
+                    counts[token.getPosition() + REACH]++;
+            }
+        }
+        for (int i = 0; i < counts.length; i++)
+            sums[i + 1] = sums[i] + counts[i];
+        return this;
+    }
+
+
+     // Gets the seat of the player the histogram was built for, or -1 if it has not been built.
+
+    public int getSeat() {
+        return seat;
+    }
+
+
+     // Gets the number of opponent tokens on the tile pos [0-51].
+
+    public int count(int pos) {
+        return counts[pos + REACH];
+    }
+
+
+     // Gets the number of opponent tokens within REACH tiles ahead of the tile pos [0-51] (pos excluded).
+
+    public int ahead(int pos) {
+        return sums[pos + 2 * REACH + 1] - sums[pos + REACH + 1];
+    }
+
+
+     // Gets the number of opponent tokens within REACH tiles behind the tile pos [0-51] (pos excluded).
+
+    public int behind(int pos) {
+        return sums[pos + REACH] - sums[pos];
+    }
+
+
+     // Gets the number of opponent tokens on the main track.
+
+    public int total() {
+        return sums[counts.length];
+    }
+}
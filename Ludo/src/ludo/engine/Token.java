@@ -1,16 +1,14 @@
 
-package ludo;
+package ludo.engine;
 
-import static ludo.LudoGUI.TILE_SIZE;
-import static ludo.Player.GOAL;
-import static ludo.Player.OUT_OF_BOARD;
+import static ludo.engine.Player.GOAL;
+import static ludo.engine.Player.OUT_OF_BOARD;
 
 /**
  * Represents one of the 4 tokens of a player.
  * This object contains the following information:
  
  * The token's position in the board
- * The token's coordinates in the graphic frame
  * The token's index in the array of tokens from the Player object
  * Whether the token is out of its home area
  * Whether the token is in its final track
@@ -18,7 +16,7 @@ import static ludo.Player.OUT_OF_BOARD;
  */
 public class Token {
  
-    private int index, position, coordinateX, coordinateY;
+    private int index, position;
     private boolean out, finalTrack, safe;
    
    
@@ -29,8 +27,6 @@ public class Token {
     this.position = OUT_OF_BOARD;
     this.out = false;
     this.finalTrack = false;
-    this.coordinateX = TILE_SIZE*15;
-    this.coordinateY = TILE_SIZE*15;
     }    
     
     
@@ -57,33 +53,6 @@ public class Token {
     }
     
     
-     // Gets the coordinate x of the token in the graphic frame.
-     
-    public int getCoordinateX() {
-        return this.coordinateX;
-    }
-
-     // Gets the coordinate y of the token in the graphic frame.
-     
-    public int getCoordinateY() {
-        return this.coordinateY;
-    }
-    
-    
-    // Sets the coordinate x of the token to a given number
-    
-    public void setCoordinateX(int x) {
-        this.coordinateX = x;
-    }
-    
-     
-     // Sets the coordinate y of the token to a given number
-     
-    public void setCoordinateY(int y) {
-        this.coordinateY = y;
-    }
-    
-    
      // Indicates whether the token is safe and can not be sent home by other tokens.
      
     public boolean getSafe() {
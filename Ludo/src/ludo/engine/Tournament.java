@@ -0,0 +1,254 @@
+package ludo.engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import ludo.engine.Autoplay.AutoplayMode;
+import ludo.engine.Player.Color;
+
+
+ // Headless tournament between computer-operated players.
+ // Plays a number of rounds on a fixed pool of worker threads (one per core by default).
+ // Each seat has its own AutoplayMode, and each game has its own seed drawn in order from a master seed,
+ // so the workers never share a generator and the results only depend on the seed, not on the number of threads.
+ // Every worker keeps its own Summary, which are merged at the end.
+ // The computer players of every game share one DecisionCache, so positions that recur in different games are evaluated once.
+ // Optionally every game is recorded (see GameRecord) and written to rolling log files in a directory (see GameLogWriter).
+ //
+ // Usage: java ludo.engine.Tournament [games] [mode,mode,mode,mode] [regular|special] [threads] [seed] [logDirectory]
+ // Each mode is an AutoplayMode or "off" for a seat that does not play (seats in order yellow, red, green, blue).
+
+
+public class Tournament {
+
+    public static final int DEFAULT_GAMES = 10000;
+    public static final String OFF = "off";
+
+    private final List<Color> colors = new ArrayList<>();
+    private final List<AutoplayMode> modes = new ArrayList<>();
+    private final boolean special;
+    private final int threads;
+    private final long seed;
+    private GameLogWriter log;
+    private DecisionCache cache;
+
+
+     // Initializes a tournament given the mode of each seat (null for a seat that does not play),
+     // the type of board, the number of worker threads and the master seed.
+
+    public Tournament(List<AutoplayMode> seatModes, boolean special, int threads, long seed) {
+        if (threads <= 0)
+            throw new IllegalArgumentException("Threads must be positive: " + threads);
+        for (Color c : Color.values()) {
+            AutoplayMode mode = seatModes.get(c.ordinal());
+            if (mode != null)
+                this.colors.add(c);
+            this.modes.add(mode != null ? mode : GameState.DEFAULT_AUTOMODE);
+        }
+        this.special = special;
+        this.threads = threads;
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) throws InterruptedException, ExecutionException, IOException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_GAMES;
+        List<AutoplayMode> seatModes = new ArrayList<>();
+        String[] names = (args.length > 1 ? args[1] : "customAI,qLearning,random,customAI").split(",");
+        for (int i = 0; i < 4; i++) {
+            String name = i < names.length ? names[i] : OFF;
+            seatModes.add(name.equalsIgnoreCase(OFF) ? null : AutoplayMode.valueOf(name));
+        }
+        boolean special = args.length > 2 ? args[2].equalsIgnoreCase("special") : GameState.DEFAULT_BOARD;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : System.nanoTime();
+
+        Tournament tournament = new Tournament(seatModes, special, threads, seed);
+        tournament.setCache(new DecisionCache());
+        if (args.length > 5) {
+            try (GameLogWriter log = new GameLogWriter(new File(args[5]), "tournament-" + seed, GameLogWriter.DEFAULT_FILE_SIZE)) {
+                tournament.setLog(log);
+                System.out.println(tournament.run(games).report(seatModes, special, threads, seed));
+            }
+        } else {
+            System.out.println(tournament.run(games).report(seatModes, special, threads, seed));
+        }
+        System.out.println(tournament.cache);
+    }
+
+
+     // Sets the cache of decisions shared by the computer players of every game, or null to not cache decisions.
+
+    public void setCache(DecisionCache cache) {
+        this.cache = cache;
+    }
+
+
+     // Sets the writer the games are recorded to, or null to play without recording.
+
+    public void setLog(GameLogWriter log) {
+        this.log = log;
+    }
+
+
+     // Plays the given number of games on the worker threads and returns the merged results.
+     // The workers take the games one at a time, so a thread with long games does not hold up the others;
+     // the results do not depend on which thread plays a game, as the seed of every game is drawn in advance.
+
+    public Summary run(int games) throws InterruptedException, ExecutionException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long[] seeds = seeds(RandomStream.seeded(seed), games);
+        List<Future<Summary>> parts = new ArrayList<>();
+        long start = System.nanoTime();
+        try {
+            AtomicInteger next = new AtomicInteger();
+            for (int w = 0; w < threads; w++)
+                parts.add(pool.submit(() -> play(seeds, next)));
+            Summary total = new Summary();
+            for (Future<Summary> part : parts)
+                total.merge(part.get());
+            total.nanos = System.nanoTime() - start;
+            return total;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+
+     // Plays the given number of games on the calling thread, seeded from the given stream.
+     // Gives the same results as run with the given stream as master.
+
+    public Summary play(int games, RandomStream stream) throws InterruptedException {
+        return play(seeds(stream, games), new AtomicInteger());
+    }
+
+    // Plays the games of the given seeds whose index is taken from next, until there are no games left.
+
+    private Summary play(long[] seeds, AtomicInteger next) throws InterruptedException {
+        Summary summary = new Summary();
+        GameLogWriter.Batch batch = log != null ? log.newBatch() : null;
+        GameRecord record = new GameRecord();
+        for (int g = next.getAndIncrement(); g < seeds.length; g = next.getAndIncrement()) {
+            GameState game = newGame(RandomStream.seeded(seeds[g]));
+            if (batch != null) {
+                record.clear(game, seeds[g]);
+                Simulation.play(game, record);
+                batch.add(record);
+            } else {
+                Simulation.play(game);
+            }
+            summary.add(game);
+        }
+        if (batch != null)
+            batch.flush();
+        return summary;
+    }
+
+    // Draws the seed of every game from the master stream, in the order of the games.
+
+    private static long[] seeds(RandomStream master, int games) {
+        long[] seeds = new long[games];
+        for (int g = 0; g < games; g++)
+            seeds[g] = master.nextLong();
+        return seeds;
+    }
+
+
+     // Creates a round with the seats and modes of this tournament, whose dice and random mode use streams split from the given stream.
+
+    public GameState newGame(RandomStream stream) {
+        List<Boolean> auto = Arrays.asList(true, true, true, true);
+        GameState game = new GameState(colors, auto, modes, special);
+        game.setDice(new Dice(stream.split()));
+        Autoplay computerPlayer = new Autoplay(stream.split());
+        computerPlayer.setCache(cache);
+        game.setComputerPlayer(computerPlayer);
+        return game;
+    }
+
+
+     // Results of a set of games: wins, placements, turns and dice casts per game.
+
+    public static class Summary {
+
+        private long games, unfinished, turns, rolls, nanos;
+        private int minTurns = Integer.MAX_VALUE, maxTurns;
+        private final long[][] placements = new long[4][4]; //[seat][place]
+
+
+         // Adds the results of a finished round.
+
+        public void add(GameState game) {
+            games++;
+            if (game.getPlaying())
+                unfinished++;
+            ArrayList<Integer> winners = game.getWinners();
+            for (int place = 0; place < winners.size(); place++)
+                placements[winners.get(place)][place]++;
+            int t = game.getTurnCount();
+            turns += t;
+            minTurns = Math.min(minTurns, t);
+            maxTurns = Math.max(maxTurns, t);
+            rolls += game.getDice().getDiceRollCount();
+        }
+
+
+         // Adds the results of another summary to this one.
+
+        public void merge(Summary other) {
+            games += other.games;
+            unfinished += other.unfinished;
+            turns += other.turns;
+            rolls += other.rolls;
+            minTurns = Math.min(minTurns, other.minTurns);
+            maxTurns = Math.max(maxTurns, other.maxTurns);
+            for (int s = 0; s < 4; s++)
+                for (int p = 0; p < 4; p++)
+                    placements[s][p] += other.placements[s][p];
+        }
+
+        public long getGames() {
+            return games;
+        }
+
+        public long getWins(int seat) {
+            return placements[seat][0];
+        }
+
+        public long getPlacements(int seat, int place) {
+            return placements[seat][place];
+        }
+
+        public double getAverageTurns() {
+            return games == 0 ? 0 : (double) turns / games;
+        }
+
+
+         // Formats the results as a table with one row per seat.
+
+        public String report(List<AutoplayMode> seatModes, boolean special, int threads, long seed) {
+            double seconds = nanos / 1e9;
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("%d games, %s board, %d threads, seed %d: %.2f s (%.0f games/s)%n",
+                    games, special ? "special" : "regular", threads, seed, seconds, games / Math.max(seconds, 1e-9)));
+            sb.append(String.format("turns/game avg %.1f min %d max %d, rolls/game %.1f, unfinished %d%n",
+                    getAverageTurns(), games == 0 ? 0 : minTurns, maxTurns, games == 0 ? 0 : (double) rolls / games, unfinished));
+            sb.append(String.format("%-7s %-17s %8s %7s %8s %8s %8s %8s%n", "seat", "mode", "wins", "win%", "1st", "2nd", "3rd", "4th"));
+            for (Color c : Color.values()) {
+                int s = c.ordinal();
+                AutoplayMode mode = seatModes.get(s);
+                if (mode == null)
+                    continue;
+                sb.append(String.format("%-7s %-17s %8d %6.1f%% %8d %8d %8d %8d%n", c.name(), mode.name(), getWins(s),
+                        100.0 * getWins(s) / Math.max(games, 1), placements[s][0], placements[s][1], placements[s][2], placements[s][3]));
+            }
+            return sb.toString();
+        }
+    }
+}
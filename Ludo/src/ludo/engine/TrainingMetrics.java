@@ -0,0 +1,137 @@
+package ludo.engine;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+
+ // Metrics of a q-learning training: iterations per second, mean reward, max |delta Q| and visits of each state.
+ // The training loop only adds up the rewards and the visits in local variables and arrays; the metrics are published
+ // once per reporting window (see QLearning.REPORT_ITERATIONS), so they cost nothing per iteration.
+ //
+ // The metrics of the last window can be read through JMX (register), under OBJECT_NAME, from any thread,
+ // and can be appended as a line of a CSV file after every window (setCsv).
+
+
+public class TrainingMetrics implements TrainingMetricsMXBean {
+
+    public static final String OBJECT_NAME = "ludo.engine:type=TrainingMetrics";
+
+    private volatile long iterations;
+    private volatile double iterationsPerSecond;
+    private volatile double meanReward;
+    private volatile double maxDeltaQ;
+    private volatile long[] visits = new long[0];
+    private volatile long windows;
+    private File csv;
+
+
+     // Publishes the metrics of a reporting window, and appends them to the CSV file if there is one.
+     // @param iterations the number of iterations trained in total at the end of the window
+     // @param window the number of iterations of the window
+     // @param nanos the time of the window
+     // @param rewards the sum of the rewards of the window
+     // @param maxDeltaQ the largest change of a q-value during the window
+     // @param visits the number of visits of each state since the training started, which is copied
+
+    void record(long iterations, long window, long nanos, double rewards, double maxDeltaQ, long[] visits) {
+        this.iterations = iterations;
+        this.iterationsPerSecond = window * 1e9 / Math.max(nanos, 1);
+        this.meanReward = rewards / Math.max(window, 1);
+        this.maxDeltaQ = maxDeltaQ;
+        this.visits = visits.clone();
+        this.windows++;
+        if (csv != null)
+            append();
+    }
+
+    // Appends a line with the metrics of the last window to the CSV file, and the names of the columns if the file is new.
+
+    private void append() {
+        boolean header = !csv.exists() || csv.length() == 0;
+        long[] v = visits;
+        try (PrintWriter out = new PrintWriter(new FileWriter(csv, true))) {
+            if (header) {
+                out.print("time,iterations,iterationsPerSecond,meanReward,maxDeltaQ");
+                for (int i = 0; i < v.length; i++)
+                    out.print(",visits" + i);
+                out.println();
+            }
+            out.print(System.currentTimeMillis() + "," + iterations + "," + iterationsPerSecond + "," + meanReward + "," + maxDeltaQ);
+            for (long visit : v)
+                out.print("," + visit);
+            out.println();
+        } catch (IOException ex) {
+            System.err.println(csv + ": " + ex.getMessage() + ", the metrics are not written any more");
+            csv = null;
+        }
+    }
+
+
+     // Sets the CSV file where a line is appended after every reporting window, or null to not write the metrics.
+
+    public void setCsv(File csv) {
+        this.csv = csv;
+    }
+
+    public File getCsv() {
+        return csv;
+    }
+
+
+     // Registers the metrics in the platform MBean server under OBJECT_NAME, replacing metrics registered before.
+     // @throws IllegalStateException if the metrics can not be registered
+
+    public void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name))
+                server.unregisterMBean(name);
+            server.registerMBean(this, name);
+        } catch (JMException ex) {
+            throw new IllegalStateException("Can not register " + OBJECT_NAME, ex);
+        }
+    }
+
+    @Override
+    public long getIterations() {
+        return iterations;
+    }
+
+    @Override
+    public double getIterationsPerSecond() {
+        return iterationsPerSecond;
+    }
+
+    @Override
+    public double getMeanReward() {
+        return meanReward;
+    }
+
+    @Override
+    public double getMaxDeltaQ() {
+        return maxDeltaQ;
+    }
+
+    @Override
+    public long[] getVisits() {
+        return visits.clone();
+    }
+
+    @Override
+    public long getWindows() {
+        return windows;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d iterations, %.0f iterations/s, mean reward %.4f, max delta Q %.3g",
+                iterations, iterationsPerSecond, meanReward, maxDeltaQ);
+    }
+}
@@ -0,0 +1,38 @@
+package ludo.engine;
+
+
+ // Management interface of the metrics of a q-learning training, read through JMX (see TrainingMetrics).
+
+
+public interface TrainingMetricsMXBean {
+
+
+     // Gets the number of iterations trained, including the iterations of the checkpoint the training resumed from.
+
+    long getIterations();
+
+
+     // Gets the iterations per second of the last reporting window.
+
+    double getIterationsPerSecond();
+
+
+     // Gets the mean reward per iteration of the last reporting window.
+
+    double getMeanReward();
+
+
+     // Gets the largest change of a q-value during the last reporting window.
+
+    double getMaxDeltaQ();
+
+
+     // Gets the number of iterations that started on each state (tile) since the training started.
+
+    long[] getVisits();
+
+
+     // Gets the number of reporting windows since the training started.
+
+    long getWindows();
+}
@@ -0,0 +1,139 @@
+package ludo.engine;
+
+import java.util.SplittableRandom;
+import ludo.engine.Autoplay.AutoplayMode;
+import static ludo.engine.PackedState.AT_GOAL;
+import static ludo.engine.PackedState.HOME;
+
+/**
+ * Zobrist keys of the positions of a round of ludo.
+ * The hash of a position is the XOR of one random key for the progress code and safe flag of each of the 16 tokens
+ * (see PackedState), one for the player whose turn it is and one for a special board.
+ * There are also keys for the dice result, the players still in the game, the AutoplayMode and the configuration of
+ * the controller, to extend the hash into the key of a decision.
+ * A token at home and not safe has key 0, so a player with every token at home adds nothing to the hash.
+
+ * Player keeps the hash of its tokens up to date every time one of them changes (two XORs per change),
+ * and GameState.getHash combines the hashes of the players with the side to move and the type of board.
+ * The keys are generated from a fixed seed, so a hash is the same in every run and can be stored.
+ */
+public final class Zobrist {
+
+    private static final long SEED = 0x5EED1D0L;
+    private static final int STATES = (AT_GOAL + 1) * 2; //progress code x safe flag
+    private static final long[] TOKENS = new long[4 * 4 * STATES];
+    private static final long[] SIDE = new long[4];
+    private static final long SPECIAL;
+    private static final long[] DICE = new long[7];
+    private static final long[] MODES = new long[AutoplayMode.values().length];
+    private static final long[] SEATS = new long[16];
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int i = 0; i < TOKENS.length; i++)
+            TOKENS[i] = random.nextLong();
+        for (int seat = 0; seat < 4; seat++)
+            for (int t = 0; t < 4; t++)
+                TOKENS[index(seat, t, HOME, false)] = 0;
+        for (int i = 0; i < SIDE.length; i++)
+            SIDE[i] = random.nextLong();
+        SPECIAL = random.nextLong();
+        for (int i = 1; i < DICE.length; i++)
+            DICE[i] = random.nextLong();
+        for (int i = 0; i < MODES.length; i++)
+            MODES[i] = random.nextLong();
+        for (int i = 0; i < SEATS.length; i++)
+            SEATS[i] = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    private static int index(int seat, int tIndex, int code, boolean safe) {
+        return ((seat * 4 + tIndex) * (AT_GOAL + 1) + code) * 2 + (safe ? 1 : 0);
+    }
+
+
+     // Gets the key of a token of the given seat standing at the given progress code.
+
+    public static long token(int seat, int tIndex, int code, boolean safe) {
+        return TOKENS[index(seat, tIndex, code, safe)];
+    }
+
+
+     // Gets the key of a Token of the player with the given seat.
+
+    public static long token(int seat, Token token) {
+        return token(seat, token.getIndex(), PackedState.code(seat, token), token.getSafe());
+    }
+
+
+     // Gets the key of the player whose turn it is.
+
+    public static long side(int seat) {
+        return SIDE[seat];
+    }
+
+
+     // Gets the key of the type of board (0 for a regular board).
+
+    public static long board(boolean special) {
+        return special ? SPECIAL : 0;
+    }
+
+
+     // Gets the key of a dice result [1-6], to tell apart the decisions taken in the same position (see DecisionCache).
+
+    public static long dice(int result) {
+        return DICE[result];
+    }
+
+
+     // Gets the key of the players still in the game, as a mask of seats (bit s for seat s), to tell apart the positions
+     // where a seat is out of the game from the ones where it is playing with every token at home (see DecisionCache).
+
+    public static long seats(int mask) {
+        return SEATS[mask];
+    }
+
+
+     // Gets the key of the AutoplayMode that takes a decision (see DecisionCache).
+
+    public static long mode(AutoplayMode mode) {
+        return MODES[mode.ordinal()];
+    }
+
+
+     // Gets the key of the configuration of a controller that its decisions depend on: the reward weights of every seat
+     // and the depth and node budget of the expectiminimax search (see DecisionCache).
+
+    public static long config(RewardWeights[] weights, int depth, long budget) {
+        long h = mix(SEED ^ depth) ^ mix(budget + 1);
+        for (RewardWeights w : weights)
+            for (RewardWeights.Feature f : RewardWeights.Feature.values())
+                h = mix(h ^ w.get(f));
+        return h;
+    }
+
+    // Spreads the bits of a value (finalizer of MurmurHash3).
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+
+     // Computes the hash of a position from scratch. Gives the same value as GameState.getHash for the same position.
+
+    public static long hash(PackedState state) {
+        long h = side(state.getCurrentPlayer()) ^ board(state.getSpecial());
+        for (int seat = 0; seat < 4; seat++)
+            for (int t = 0; t < 4; t++)
+                h ^= token(seat, t, state.getCode(seat, t), state.getSafe(seat, t));
+        return h;
+    }
+}